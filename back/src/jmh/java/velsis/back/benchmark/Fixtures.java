@@ -0,0 +1,51 @@
+package velsis.back.benchmark;
+
+import velsis.back.dtos.CreateUsuarioDTO;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.entities.AddressStatus;
+import velsis.back.entities.Usuario;
+
+import java.time.LocalDate;
+
+/**
+ * Dados sintéticos com o formato dos cadastros reais, compartilhados pelos benchmarks
+ */
+final class Fixtures {
+
+    static final String[] FIRST_NAMES = {"Ana", "Bruno", "Carlos", "Daniela", "Eduardo", "Fernanda", "Gabriel",
+            "Helena", "João", "José", "Juliana", "Lucas", "Mariana", "Pedro", "Rafaela", "Sandra"};
+    static final String[] LAST_NAMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves",
+            "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Nascimento"};
+
+    private Fixtures() {
+    }
+
+    static String name(int i) {
+        return FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / 7) % LAST_NAMES.length]
+                + " " + LAST_NAMES[(i / 3) % LAST_NAMES.length];
+    }
+
+    static String document(int i) {
+        return "%011d".formatted(10_000_000_000L + i);
+    }
+
+    static String zip(int i) {
+        return "%08d".formatted(1_000_000 + i);
+    }
+
+    static Usuario usuario(int i) {
+        LocalDate today = LocalDate.of(2025, 1, 1);
+        return new Usuario(i, name(i), LocalDate.of(1950 + i % 50, 1 + i % 12, 1 + i % 28), document(i),
+                "Rua " + i, i % 1000, "São Paulo", "SP", zip(i), AddressStatus.RESOLVED, today, today, 0);
+    }
+
+    static UsuarioDTO usuarioDTO(int i) {
+        Usuario usuario = usuario(i);
+        return new UsuarioDTO(usuario.getId(), usuario.getName(), usuario.getBirth_date(),
+                usuario.getCity(), usuario.getState());
+    }
+
+    static CreateUsuarioDTO createUsuarioDTO(int i) {
+        return new CreateUsuarioDTO(name(i), LocalDate.of(1990, 1, 1), 100, document(i), zip(i));
+    }
+}
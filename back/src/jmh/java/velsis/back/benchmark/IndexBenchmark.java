@@ -0,0 +1,125 @@
+package velsis.back.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import velsis.back.api.Endereco;
+import velsis.back.api.LocalCepIndex;
+import velsis.back.dtos.UsuarioForUpdateDTO;
+import velsis.back.dtos.UsuarioSearchDTO;
+import velsis.back.services.NameSearchIndex;
+import velsis.back.services.UsuarioForUpdateCache;
+import velsis.back.utils.LongHashSet;
+import velsis.back.utils.LongIntHashMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas às estruturas em memória: índice de nomes, conjunto de documents,
+ * mapa id → slot, base local de CEPs e cache da tela de edição
+ * Cada chamada usa uma chave diferente, percorrendo as chaves em ciclo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexBenchmark {
+
+    private static final String[] QUERIES = {"silva", "ana", "jo", "oliv", "mariana souza", "nasc", "carl"};
+
+    @Param({"100000"})
+    private int size;
+
+    private NameSearchIndex nameSearchIndex;
+    private LongHashSet documents;
+    private LongIntHashMap slots;
+    private LocalCepIndex localCepIndex;
+    private UsuarioForUpdateCache usuarioForUpdateCache;
+    private Path cepFile;
+    private String[] zips;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        nameSearchIndex = new NameSearchIndex(null, null, true, size);
+        documents = new LongHashSet(size);
+        slots = new LongIntHashMap(size, -1);
+        usuarioForUpdateCache = new UsuarioForUpdateCache(size, Duration.ofHours(1));
+        List<Endereco> enderecos = new ArrayList<>(size);
+        zips = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            nameSearchIndex.put(i + 1, Fixtures.name(i) + " " + Integer.toString(i, 36));
+            documents.add(Long.parseLong(Fixtures.document(i)));
+            slots.put(i + 1, i);
+            zips[i] = Fixtures.zip(i);
+            enderecos.add(new Endereco(zips[i], "Rua " + i, "São Paulo", "SP"));
+            usuarioForUpdateCache.get(i + 1, this::usuarioForUpdate);
+        }
+
+        cepFile = Files.createTempFile("ceps", ".idx");
+        LocalCepIndex.write(enderecos, cepFile);
+        localCepIndex = new LocalCepIndex(cepFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(cepFile);
+    }
+
+    @Benchmark
+    public List<UsuarioSearchDTO> nameSearch() {
+        return nameSearchIndex.search(QUERIES[next() % QUERIES.length], 10);
+    }
+
+    @Benchmark
+    public boolean documentContains() {
+        return documents.contains(10_000_000_000L + next() * 2L);
+    }
+
+    @Benchmark
+    public int slotById() {
+        return slots.get(next() + 1);
+    }
+
+    @Benchmark
+    public Endereco localCepLookup() {
+        return localCepIndex.resolve(zips[next()]);
+    }
+
+    @Benchmark
+    public UsuarioForUpdateDTO editCacheHit() {
+        return usuarioForUpdateCache.get(next() + 1, this::usuarioForUpdate);
+    }
+
+    private int next() {
+        int current = next;
+        next = current + 1 == size ? 0 : current + 1;
+        return current;
+    }
+
+    private UsuarioForUpdateDTO usuarioForUpdate(long id) {
+        int i = (int) id - 1;
+        return new UsuarioForUpdateDTO(id, Fixtures.name(i), LocalDate.of(1990, 1, 1), Fixtures.document(i),
+                Fixtures.zip(i), 100, 0);
+    }
+}
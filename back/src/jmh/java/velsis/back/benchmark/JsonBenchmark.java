@@ -0,0 +1,105 @@
+package velsis.back.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import velsis.back.api.Endereco;
+import velsis.back.dtos.ErrorDTO;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.entities.Usuario;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização das respostas da API e leitura da resposta do ViaCEP
+ * O ObjectMapper é montado como o do Spring Boot (módulos de data/hora e ISO-8601).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final int LIST_SIZE = 1000;
+
+    private static final byte[] VIACEP_RESPONSE = """
+            {
+              "cep": "01001-000",
+              "logradouro": "Praça da Sé",
+              "complemento": "lado ímpar",
+              "unidade": "",
+              "bairro": "Sé",
+              "localidade": "São Paulo",
+              "uf": "SP",
+              "estado": "São Paulo",
+              "regiao": "Sudeste",
+              "ibge": "3550308",
+              "gia": "1004",
+              "ddd": "11",
+              "siafi": "7107"
+            }
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private ObjectWriter writer;
+    private ObjectReader enderecoReader;
+    private List<UsuarioDTO> usuarioDTOs;
+    private List<Usuario> usuarios;
+    private ErrorDTO error;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        enderecoReader = objectMapper.readerFor(Endereco.class);
+
+        usuarioDTOs = new ArrayList<>(LIST_SIZE);
+        usuarios = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            usuarioDTOs.add(Fixtures.usuarioDTO(i + 1));
+            usuarios.add(Fixtures.usuario(i + 1));
+        }
+        error = new ErrorDTO("VALIDATION_ERROR", "Erro de validação",
+                List.of("document: Documento deve conter apenas números", "zip: CEP deve ter exatamente 8 caracteres"));
+    }
+
+    @Benchmark
+    public byte[] serializeUsuarioDTOs() throws JsonProcessingException {
+        return writer.writeValueAsBytes(usuarioDTOs);
+    }
+
+    /**
+     * Referência para a listagem sem projeção, serializando a entidade completa
+     */
+    @Benchmark
+    public byte[] serializeEntities() throws JsonProcessingException {
+        return writer.writeValueAsBytes(usuarios);
+    }
+
+    @Benchmark
+    public byte[] serializeErrorDTO() throws JsonProcessingException {
+        return writer.writeValueAsBytes(error);
+    }
+
+    @Benchmark
+    public Endereco deserializeEndereco() throws IOException {
+        return enderecoReader.readValue(VIACEP_RESPONSE);
+    }
+}
@@ -0,0 +1,84 @@
+package velsis.back.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import velsis.back.dtos.UsuarioDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tamanho e custo de serialização da listagem (1000 UsuarioDTO) em JSON, CBOR e Smile, com e sem gzip
+ * O tempo por operação é o custo de CPU; o tamanho codificado de cada combinação é impresso no início do trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+
+    private static final int LIST_SIZE = 1000;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"none", "gzip"})
+    private String compression;
+
+    private ObjectWriter writer;
+    private boolean gzip;
+    private List<UsuarioDTO> usuarioDTOs;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> objectMapper.getFactory();
+        };
+        writer = objectMapper.copyWith(factory).writer();
+        gzip = compression.equals("gzip");
+
+        usuarioDTOs = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            usuarioDTOs.add(Fixtures.usuarioDTO(i + 1));
+        }
+
+        System.out.printf("%n%s + %s: %d bytes para %d usuários%n", format, compression, encode().length, LIST_SIZE);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (!gzip) {
+            return writer.writeValueAsBytes(usuarioDTOs);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            writer.writeValue(out, usuarioDTOs);
+        }
+        return bytes.toByteArray();
+    }
+}
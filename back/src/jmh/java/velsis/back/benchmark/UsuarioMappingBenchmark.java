@@ -0,0 +1,62 @@
+package velsis.back.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.dtos.UsuarioForUpdateDTO;
+import velsis.back.entities.Usuario;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de listas de entidades para os DTOs devolvidos pela API
+ * Mede o custo que a projeção na consulta (findAllResumido) evita na listagem.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UsuarioMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Usuario> usuarios;
+
+    @Setup
+    public void setUp() {
+        usuarios = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            usuarios.add(Fixtures.usuario(i + 1));
+        }
+    }
+
+    @Benchmark
+    public List<UsuarioDTO> toUsuarioDTO() {
+        return usuarios.stream()
+                .map(usuario -> new UsuarioDTO(usuario.getId(), usuario.getName(), usuario.getBirth_date(),
+                        usuario.getCity(), usuario.getState()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<UsuarioForUpdateDTO> toUsuarioForUpdateDTO() {
+        return usuarios.stream()
+                .map(usuario -> new UsuarioForUpdateDTO(usuario.getId(), usuario.getName(), usuario.getBirth_date(),
+                        usuario.getDocument(), usuario.getZip(), usuario.getAddress_number(), usuario.getVersion()))
+                .toList();
+    }
+}
@@ -0,0 +1,82 @@
+package velsis.back.api;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Cache em memória das consultas ao ViaCEP
+ * Limitado por tamanho (W-TinyLFU) e por tempo, com tempo menor para CEPs inexistentes.
+ * Consultas simultâneas do mesmo CEP aguardam uma única chamada ao ViaCEP.
+ * O cache guarda a consulta em andamento (assíncrona); consultas com falha não ficam em cache.
+ */
+@Component
+@Order(100)
+public class CepCache implements CepResolver {
+
+    private final AsyncLoadingCache<String, Endereco> cache;
+
+    public CepCache(ViaCep viaCep,
+                    @Value("${viacep.cache.maximum-size:10000}") long maximumSize,
+                    @Value("${viacep.cache.ttl:24h}") Duration ttl,
+                    @Value("${viacep.cache.negative-ttl:10m}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String cep, Endereco endereco) ->
+                        endereco.isFound() ? ttl : negativeTtl))
+                .recordStats()
+                .buildAsync((cep, executor) -> viaCep.viaCepAsync(cep));
+    }
+
+    /**
+     * Retorna o endereço do CEP, consultando o ViaCEP apenas quando não estiver em cache
+     *
+     * @param cep - CEP com 8 dígitos
+     * @return Endereço retornado pelo ViaCEP (localidade nula quando o CEP não existe)
+     */
+    @Override
+    public Endereco resolve(String cep) {
+        try {
+            return cache.get(cep).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Retorna o endereço do CEP sem bloquear; a chamada ao ViaCEP, quando necessária, é compartilhada
+     * com as demais consultas do mesmo CEP
+     */
+    @Override
+    public CompletableFuture<Endereco> resolveAsync(String cep) {
+        return cache.get(cep);
+    }
+
+    /**
+     * Retorna o endereço apenas se já estiver em cache, sem consultar o ViaCEP
+     */
+    @Override
+    public Endereco peek(String cep) {
+        CompletableFuture<Endereco> endereco = cache.getIfPresent(cep);
+        if (endereco == null || !endereco.isDone() || endereco.isCompletedExceptionally()) {
+            return null;
+        }
+        return endereco.join();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+}
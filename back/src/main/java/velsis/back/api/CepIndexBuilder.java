@@ -0,0 +1,36 @@
+package velsis.back.api;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Gera o arquivo da base local de CEPs a partir de um NDJSON no formato do ViaCEP
+ * (uma linha por CEP com cep, logradouro, localidade e uf)
+ *
+ * Uso: java -cp back.jar velsis.back.api.CepIndexBuilder ceps.ndjson ceps.idx
+ */
+public class CepIndexBuilder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: CepIndexBuilder <entrada.ndjson> <saida.idx>");
+            System.exit(1);
+        }
+
+        try (MappingIterator<Endereco> iterator = new ObjectMapper()
+                .readerFor(Endereco.class)
+                .readValues(Path.of(args[0]).toFile())) {
+            List<Endereco> enderecos = iterator.readAll().stream()
+                    .map(endereco -> new Endereco(endereco.cep().replace("-", ""),
+                            endereco.logradouro(), endereco.localidade(), endereco.uf()))
+                    .toList();
+
+            LocalCepIndex.write(enderecos, Path.of(args[1]));
+            System.out.println(enderecos.size() + " CEPs gravados em " + args[1]);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package velsis.back.api;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Uma camada de resolução de CEP
+ * As camadas são consultadas em ordem (@Order) pelo CepResolverChain até alguma responder.
+ */
+public interface CepResolver {
+
+    /**
+     * Resolve o CEP nesta camada
+     *
+     * @param cep - CEP com 8 dígitos
+     * @return Endereço (com localidade nula se a camada afirma que o CEP não existe)
+     * ou null quando a camada não tem resposta e a próxima deve ser consultada
+     */
+    Endereco resolve(String cep);
+
+    /**
+     * Resolve o CEP nesta camada sem bloquear em chamadas externas
+     * Camadas locais respondem na própria thread; o padrão apenas delega para resolve.
+     */
+    default CompletableFuture<Endereco> resolveAsync(String cep) {
+        return CompletableFuture.completedFuture(resolve(cep));
+    }
+
+    /**
+     * Resolve o CEP apenas se for barato (sem chamada externa)
+     */
+    default Endereco peek(String cep) {
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package velsis.back.api;
+
+import org.springframework.stereotype.Component;
+import velsis.back.exceptions.CepServiceException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolve CEPs consultando as camadas em ordem: base local mapeada em memória
+ * e, para os CEPs que não estiverem nela, o ViaCEP (com cache)
+ */
+@Component
+public class CepResolverChain {
+
+    private final List<CepResolver> resolvers;
+
+    public CepResolverChain(List<CepResolver> resolvers) {
+        this.resolvers = resolvers;
+    }
+
+    /**
+     * Retorna o endereço do CEP pela primeira camada que tiver resposta
+     *
+     * @param cep - CEP com 8 dígitos
+     * @return Endereço encontrado (localidade nula quando o CEP não existe)
+     * @throws CepServiceException se nenhuma camada responder ou o ViaCEP falhar
+     */
+    public Endereco resolve(String cep) {
+        for (CepResolver resolver : resolvers) {
+            Endereco endereco = resolver.resolve(cep);
+            if (endereco != null) {
+                return endereco;
+            }
+        }
+        throw new CepServiceException();
+    }
+
+    /**
+     * Versão assíncrona do resolve: cada camada só é consultada depois que a anterior terminou sem resposta
+     *
+     * @param cep - CEP com 8 dígitos
+     * @return Endereço encontrado, ou falha com CepServiceException se nenhuma camada responder ou o ViaCEP falhar
+     */
+    public CompletableFuture<Endereco> resolveAsync(String cep) {
+        return resolveAsync(cep, 0);
+    }
+
+    private CompletableFuture<Endereco> resolveAsync(String cep, int layer) {
+        if (layer == resolvers.size()) {
+            return CompletableFuture.failedFuture(new CepServiceException());
+        }
+
+        return resolvers.get(layer).resolveAsync(cep).thenCompose(endereco -> endereco != null
+                ? CompletableFuture.completedFuture(endereco)
+                : resolveAsync(cep, layer + 1));
+    }
+
+    /**
+     * Retorna o endereço apenas se alguma camada puder responder sem chamada externa
+     */
+    public Endereco peek(String cep) {
+        for (CepResolver resolver : resolvers) {
+            Endereco endereco = resolver.peek(cep);
+            if (endereco != null) {
+                return endereco;
+            }
+        }
+        return null;
+    }
+}
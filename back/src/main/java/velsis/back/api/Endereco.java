@@ -1,9 +1,21 @@
 package velsis.back.api;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
 public record Endereco(
         String cep,
         String logradouro,
         String localidade,
         String uf
 ) {
+
+    /**
+     * O ViaCEP responde {"erro": true} para CEPs inexistentes, resultando em cidade e UF nulas
+     */
+    @JsonIgnore
+    public boolean isFound() {
+        return localidade != null && uf != null;
+    }
 }
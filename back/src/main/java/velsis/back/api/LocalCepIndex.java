@@ -0,0 +1,246 @@
+package velsis.back.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base local de CEPs mapeada em memória, consultada antes do ViaCEP
+ * O arquivo guarda as chaves de 8 dígitos ordenadas e uma tabela de strings compartilhada
+ * (logradouros, cidades e UFs), então a consulta é uma busca binária sem acesso à rede.
+ *
+ * Formato (big-endian):
+ * magic "CEPIDX01" | int quantidade | int quantidade de strings
+ * | int[quantidade] CEPs ordenados | int[quantidade * 3] (logradouro, cidade, uf) como índices de string
+ * | int[strings + 1] offsets | bytes UTF-8 das strings
+ */
+@Component
+@Order(0)
+public class LocalCepIndex implements CepResolver {
+
+    private static final byte[] MAGIC = "CEPIDX01".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = MAGIC.length + Integer.BYTES * 2;
+
+    private final IntBuffer keys;
+    private final IntBuffer entries;
+    private final IntBuffer offsets;
+    private final ByteBuffer strings;
+    private final String[] decoded;
+    private final int count;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LocalCepIndex(@Value("${cep.local-index.path:}") String path) throws IOException {
+        if (path == null || path.isBlank()) {
+            this.keys = null;
+            this.entries = null;
+            this.offsets = null;
+            this.strings = null;
+            this.decoded = new String[0];
+            this.count = 0;
+            return;
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IllegalStateException("Arquivo de CEPs inválido: " + path);
+        }
+
+        this.count = buffer.getInt(MAGIC.length);
+        int stringCount = buffer.getInt(MAGIC.length + Integer.BYTES);
+
+        int keysStart = HEADER_SIZE;
+        int entriesStart = keysStart + count * Integer.BYTES;
+        int offsetsStart = entriesStart + count * 3 * Integer.BYTES;
+        int stringsStart = offsetsStart + (stringCount + 1) * Integer.BYTES;
+
+        this.keys = buffer.slice(keysStart, count * Integer.BYTES).asIntBuffer();
+        this.entries = buffer.slice(entriesStart, count * 3 * Integer.BYTES).asIntBuffer();
+        this.offsets = buffer.slice(offsetsStart, (stringCount + 1) * Integer.BYTES).asIntBuffer();
+        this.strings = buffer.slice(stringsStart, buffer.capacity() - stringsStart);
+        this.decoded = new String[stringCount];
+    }
+
+    /**
+     * Procura o CEP na base local
+     *
+     * @param cep - CEP com 8 dígitos
+     * @return Endereço encontrado ou null quando o CEP não está na base (ou a base não foi configurada)
+     */
+    @Override
+    public Endereco resolve(String cep) {
+        int key = parse(cep);
+        if (count == 0 || key < 0) {
+            return null;
+        }
+
+        int position = search(key);
+        if (position < 0) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        int entry = position * 3;
+        return new Endereco(cep, string(entries.get(entry)), string(entries.get(entry + 1)), string(entries.get(entry + 2)));
+    }
+
+    @Override
+    public Endereco peek(String cep) {
+        return resolve(cep);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private int search(int key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = keys.get(mid);
+            if (value < key) {
+                low = mid + 1;
+            } else if (value > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodifica a string uma única vez; cidades e UFs se repetem em muitos CEPs
+     */
+    private String string(int index) {
+        if (index < 0) {
+            return null;
+        }
+
+        String value = decoded[index];
+        if (value == null) {
+            int start = offsets.get(index);
+            byte[] bytes = new byte[offsets.get(index + 1) - start];
+            strings.get(start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[index] = value;
+        }
+        return value;
+    }
+
+    private static int parse(String cep) {
+        if (cep == null || cep.length() != 8) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = 0; i < 8; i++) {
+            char c = cep.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Gera o arquivo binário a partir de uma lista de endereços
+     * CEPs repetidos mantêm a primeira ocorrência
+     */
+    public static void write(Collection<Endereco> enderecos, Path target) throws IOException {
+        List<Endereco> sorted = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (Endereco endereco : enderecos) {
+            int key = parse(endereco.cep());
+            if (key >= 0 && seen.add(key)) {
+                sorted.add(endereco);
+            }
+        }
+        sorted.sort(Comparator.comparingInt(endereco -> parse(endereco.cep())));
+
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> stringBytes = new ArrayList<>();
+        int[] entryValues = new int[sorted.size() * 3];
+        for (int i = 0; i < sorted.size(); i++) {
+            Endereco endereco = sorted.get(i);
+            entryValues[i * 3] = intern(endereco.logradouro(), stringIds, stringBytes);
+            entryValues[i * 3 + 1] = intern(endereco.localidade(), stringIds, stringBytes);
+            entryValues[i * 3 + 2] = intern(endereco.uf(), stringIds, stringBytes);
+        }
+
+        try (OutputStream file = Files.newOutputStream(target);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.write(MAGIC);
+            out.writeInt(sorted.size());
+            out.writeInt(stringBytes.size());
+
+            for (Endereco endereco : sorted) {
+                out.writeInt(parse(endereco.cep()));
+            }
+            for (int value : entryValues) {
+                out.writeInt(value);
+            }
+
+            int offset = 0;
+            for (byte[] bytes : stringBytes) {
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+
+            for (byte[] bytes : stringBytes) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static int intern(String value, Map<String, Integer> ids, List<byte[]> bytes) {
+        if (value == null) {
+            return -1;
+        }
+        return ids.computeIfAbsent(value, v -> {
+            bytes.add(v.getBytes(StandardCharsets.UTF_8));
+            return bytes.size() - 1;
+        });
+    }
+}
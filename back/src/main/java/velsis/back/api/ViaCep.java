@@ -1,16 +1,171 @@
 package velsis.back.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import velsis.back.exceptions.CepServiceException;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Cliente HTTP do ViaCEP
+ * Usa um único HttpClient (pool de conexões com keep-alive), timeouts de conexão e leitura,
+ * circuit breaker para falhar rápido enquanto o serviço estiver instável
+ * e um limite de chamadas simultâneas (bulkhead).
+ * Com spring.threads.virtual.enabled o HttpClient também processa as respostas em virtual threads.
+ * Cada consulta é medida no timer viacep.requests com a tag outcome (found, not_found, error ou timeout).
+ */
 @Component
 public class ViaCep {
 
-    private static final String VIA_CEP_URL = "https://viacep.com.br/ws/";
+    private final String baseUrl;
+    private final Duration readTimeout;
+    private final HttpClient httpClient;
+    private final ExecutorService httpExecutor;
+    private final ObjectReader enderecoReader;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final MeterRegistry meterRegistry;
+
+    public ViaCep(ObjectMapper objectMapper,
+                  @Value("${viacep.url:https://viacep.com.br/ws/}") String baseUrl,
+                  @Value("${viacep.connect-timeout:2s}") Duration connectTimeout,
+                  @Value("${viacep.read-timeout:3s}") Duration readTimeout,
+                  @Value("${viacep.max-concurrent-calls:50}") int maxConcurrentCalls,
+                  @Value("${viacep.breaker.failure-threshold:5}") int failureThreshold,
+                  @Value("${viacep.breaker.open-duration:30s}") Duration openDuration,
+                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                  MeterRegistry meterRegistry) {
+        this.baseUrl = baseUrl;
+        this.readTimeout = readTimeout;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout);
+        this.httpExecutor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        if (httpExecutor != null) {
+            builder.executor(httpExecutor);
+        }
+        this.httpClient = builder.build();
+        this.enderecoReader = objectMapper.readerFor(Endereco.class);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Consulta o endereço do CEP no ViaCEP, bloqueando a thread atual até a resposta
+     *
+     * @param cep - CEP com 8 dígitos
+     * @return Endereço retornado (campos nulos quando o CEP não existe)
+     * @throws CepServiceException se o circuito estiver aberto, o limite de chamadas for atingido,
+     * ocorrer timeout ou o ViaCEP responder com erro
+     */
+    public Endereco viaCep(String cep) {
+        try {
+            return viaCepAsync(cep).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof CepServiceException cause ? cause : new CepServiceException(e.getCause());
+        }
+    }
+
+    /**
+     * Consulta o endereço do CEP no ViaCEP sem bloquear a thread atual
+     * A permissão do bulkhead fica presa até a resposta, e não até o retorno deste método.
+     *
+     * @param cep - CEP com 8 dígitos
+     * @return Endereço retornado (campos nulos quando o CEP não existe), ou falha com CepServiceException
+     * nos mesmos casos da consulta síncrona
+     */
+    public CompletableFuture<Endereco> viaCepAsync(String cep) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return send(cep).whenComplete((endereco, error) -> sample.stop(Timer.builder("viacep.requests")
+                .description("Consultas ao ViaCEP, incluindo as recusadas pelo bulkhead ou pelo circuit breaker")
+                .tag("outcome", outcome(endereco, error))
+                .register(meterRegistry)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (httpExecutor != null) {
+            httpExecutor.shutdown();
+        }
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    private CompletableFuture<Endereco> send(String cep) {
+        if (!bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(new CepServiceException());
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(new CepServiceException());
+        }
+
+        CompletableFuture<Endereco> response;
+        try {
+            response = httpClient.sendAsync(request(cep), HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(this::read);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        return response.handle((endereco, error) -> {
+            bulkhead.release();
+            if (error != null) {
+                circuitBreaker.onFailure();
+                throw new CepServiceException(error);
+            }
+            circuitBreaker.onSuccess();
+            return endereco;
+        });
+    }
+
+    private static String outcome(Endereco endereco, Throwable error) {
+        if (error == null) {
+            return endereco.isFound() ? "found" : "not_found";
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTimeoutException) {
+                return "timeout";
+            }
+        }
+        return "error";
+    }
+
+    private HttpRequest request(String cep) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + cep + "/json"))
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private Endereco read(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new CepServiceException();
+        }
 
-    public Endereco viaCep(String cep) throws Exception{
-        RestTemplate restTemplate = new RestTemplate();
-        String url = VIA_CEP_URL + cep + "/json";
-        return restTemplate.getForObject(url, Endereco.class);
+        try {
+            return enderecoReader.readValue(response.body());
+        } catch (IOException e) {
+            throw new CepServiceException();
+        }
     }
 }
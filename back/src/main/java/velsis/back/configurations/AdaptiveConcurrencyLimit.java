@@ -0,0 +1,93 @@
+package velsis.back.configurations;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada (algoritmo de gradiente)
+ * Compara a latência de cada requisição com uma referência de longo prazo: enquanto ela se mantém até tolerance
+ * vezes a referência e o limite está sendo usado, o limite cresce; quando a latência dispara, o limite cai.
+ * Respostas 503 (ViaCEP indisponível, pool de escrita cheio) reduzem o limite multiplicativamente.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SMOOTHING = 0.2;
+    // a referência cai rápido quando a latência melhora e sobe devagar (~1000 requisições) num pico prolongado
+    private static final double FALLING_ALPHA = 0.1;
+    private static final double RISING_ALPHA = 2.0 / (1000 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private double limit;
+    private int inFlight;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Reserva uma vaga; false quando o limite atual já foi atingido
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Libera a vaga e ajusta o limite com a latência da requisição
+     *
+     * @param rttNanos - duração da requisição
+     * @param dropped - se a requisição falhou por sobrecarga (503)
+     */
+    public synchronized void release(long rttNanos, boolean dropped) {
+        boolean utilized = inFlight * 2 >= limit;
+        inFlight--;
+
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+
+        double rtt = Math.max(1, rttNanos);
+        if (longRttNanos == 0) {
+            longRttNanos = rtt;
+        } else {
+            longRttNanos += (rtt - longRttNanos) * (rtt < longRttNanos ? FALLING_ALPHA : RISING_ALPHA);
+        }
+
+        // com poucas requisições em andamento a latência não depende do limite: nada a ajustar
+        if (!utilized) {
+            return;
+        }
+
+        double gradient = Math.clamp(tolerance * longRttNanos / rtt, 0.5, 1.0);
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING, minLimit, maxLimit);
+    }
+
+    /**
+     * Segundos sugeridos no Retry-After: o tempo médio de uma requisição, com mínimo de 1s
+     */
+    public synchronized long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(longRttNanos / 1_000_000_000));
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized double latencySeconds() {
+        return longRttNanos / 1_000_000_000;
+    }
+}
@@ -0,0 +1,111 @@
+package velsis.back.configurations;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import velsis.back.configurations.ConcurrencyLimited.Pool;
+import velsis.back.exceptions.OverloadedException;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Controle de admissão dos endpoints anotados com @ConcurrencyLimited
+ * Cada grupo (leitura e escrita) tem um AdaptiveConcurrencyLimit próprio; acima do limite a requisição é recusada
+ * antes de ler o corpo, com 503 OVERLOADED e Retry-After, em vez de prender threads e conexões esperando o ViaCEP.
+ * A vaga vale até o fim da resposta, inclusive das assíncronas (dispatch de conclusão do CompletableFuture).
+ *
+ * Métricas por grupo (tag pool): usuarios.admission.limit, usuarios.admission.in_flight,
+ * usuarios.admission.latency e o contador usuarios.admission.rejected.
+ */
+@Component
+public class AdmissionControl implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = AdmissionControl.class.getName() + ".permit";
+
+    private final boolean enabled;
+    private final Map<Pool, AdaptiveConcurrencyLimit> limits = new EnumMap<>(Pool.class);
+    private final Map<Pool, Counter> rejected = new EnumMap<>(Pool.class);
+
+    public AdmissionControl(@Value("${usuarios.admission.enabled:true}") boolean enabled,
+                            @Value("${usuarios.admission.tolerance:2.0}") double tolerance,
+                            @Value("${usuarios.admission.read.initial-limit:50}") int readInitialLimit,
+                            @Value("${usuarios.admission.read.min-limit:10}") int readMinLimit,
+                            @Value("${usuarios.admission.read.max-limit:200}") int readMaxLimit,
+                            @Value("${usuarios.admission.write.initial-limit:20}") int writeInitialLimit,
+                            @Value("${usuarios.admission.write.min-limit:2}") int writeMinLimit,
+                            @Value("${usuarios.admission.write.max-limit:100}") int writeMaxLimit,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        limits.put(Pool.READ, new AdaptiveConcurrencyLimit(readInitialLimit, readMinLimit, readMaxLimit, tolerance));
+        limits.put(Pool.WRITE, new AdaptiveConcurrencyLimit(writeInitialLimit, writeMinLimit, writeMaxLimit, tolerance));
+
+        limits.forEach((pool, limit) -> {
+            Gauge.builder("usuarios.admission.limit", limit, AdaptiveConcurrencyLimit::limit)
+                    .description("Limite atual de requisições simultâneas")
+                    .tag("pool", pool.tag())
+                    .register(meterRegistry);
+            Gauge.builder("usuarios.admission.in_flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                    .description("Requisições admitidas em andamento")
+                    .tag("pool", pool.tag())
+                    .register(meterRegistry);
+            Gauge.builder("usuarios.admission.latency", limit, AdaptiveConcurrencyLimit::latencySeconds)
+                    .description("Latência média de longo prazo usada como referência pelo limite")
+                    .tag("pool", pool.tag())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            rejected.put(pool, Counter.builder("usuarios.admission.rejected")
+                    .description("Requisições recusadas por excederem o limite")
+                    .tag("pool", pool.tag())
+                    .register(meterRegistry));
+        });
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !(handler instanceof HandlerMethod handlerMethod) || request.getAttribute(PERMIT) != null) {
+            return true;
+        }
+
+        ConcurrencyLimited limited = handlerMethod.getMethodAnnotation(ConcurrencyLimited.class);
+        if (limited == null) {
+            return true;
+        }
+
+        AdaptiveConcurrencyLimit limit = limits.get(limited.value());
+        if (!limit.tryAcquire()) {
+            rejected.get(limited.value()).increment();
+            throw new OverloadedException(limit.retryAfterSeconds());
+        }
+        request.setAttribute(PERMIT, new Permit(limit, System.nanoTime()));
+        return true;
+    }
+
+    /**
+     * Chamado ao fim da resposta; nas assíncronas, só depois do dispatch de conclusão
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(PERMIT) instanceof Permit permit)) {
+            return;
+        }
+
+        request.removeAttribute(PERMIT);
+        boolean dropped = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+        permit.limit().release(System.nanoTime() - permit.startNanos(), dropped);
+    }
+
+    public AdaptiveConcurrencyLimit limit(Pool pool) {
+        return limits.get(pool);
+    }
+
+    private record Permit(AdaptiveConcurrencyLimit limit, long startNanos) {
+    }
+}
@@ -0,0 +1,24 @@
+package velsis.back.configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    /**
+     * Tempo máximo de uma resposta assíncrona, como a exportação em streaming
+     * O padrão do container (30s) não é suficiente para exportar a base inteira
+     */
+    @Value("${usuarios.async.timeout:30m}")
+    private Duration asyncTimeout;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeout.toMillis());
+    }
+}
@@ -0,0 +1,27 @@
+package velsis.back.configurations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Coloca o endpoint atrás do limite adaptativo de concorrência do grupo informado (AdmissionControl)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+
+    Pool value();
+
+    /**
+     * Grupos com limites independentes: a sobrecarga das escritas não reduz o limite das leituras
+     */
+    enum Pool {
+        READ, WRITE;
+
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+}
@@ -14,6 +14,6 @@ public class CorsConfig implements WebMvcConfigurer{
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
                 .allowCredentials(true)
-                .exposedHeaders("Authorization", "Content-Type");
+                .exposedHeaders("Authorization", "Content-Type", "ETag", "Idempotent-Replayed", "Retry-After");
     }
 }
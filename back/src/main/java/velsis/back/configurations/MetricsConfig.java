@@ -0,0 +1,39 @@
+package velsis.back.configurations;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Métricas expostas em /actuator/prometheus
+ * Os padrões do Actuator ficam em metrics.properties e podem ser sobrescritos pela configuração da aplicação.
+ * O pool Hikari, as requisições HTTP e o Hibernate (via hibernate-micrometer) são instrumentados pelo
+ * próprio Spring Boot; aqui entram os timers de @Timed (UsuarioService) e a coleta de estatísticas do Hibernate.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Estatísticas do Hibernate (consultas, entidades carregadas, cache de segundo nível), sem o log por sessão
+     * Coletá-las tem um custo pequeno por operação; desligue com usuarios.metrics.hibernate-statistics=false
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateStatistics(
+            @Value("${usuarios.metrics.hibernate-statistics:true}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.GENERATE_STATISTICS, enabled);
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package velsis.back.configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura, ativadas com usuarios.replicas.urls (URLs JDBC separadas por vírgula)
+ * O primário continua configurado por spring.datasource.* (inclusive spring.datasource.hikari.*);
+ * as réplicas usam o mesmo usuário, senha e driver. Sem a propriedade, o DataSource padrão do Spring Boot é usado.
+ */
+@Configuration
+@ConditionalOnProperty("usuarios.replicas.urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties,
+                                               Environment environment,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               @Value("${usuarios.replicas.urls}") List<String> urls,
+                                               @Value("${usuarios.replicas.balance:round-robin}") String balance,
+                                               @Value("${usuarios.replicas.maximum-pool-size:10}") int maximumPoolSize) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            meterRegistry.ifAvailable(registry ->
+                    replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, ReplicaRoutingDataSource.Balance.from(balance));
+    }
+}
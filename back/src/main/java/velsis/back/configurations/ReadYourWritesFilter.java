@@ -0,0 +1,83 @@
+package velsis.back.configurations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes com réplicas: depois de uma escrita (POST, PUT, PATCH ou DELETE), as leituras do mesmo cliente
+ * vão para o primário durante usuarios.replicas.read-your-writes (padrão 5s; 0 desativa), cobrindo o atraso da replicação
+ * A janela é renovada ao fim da escrita, inclusive das assíncronas (dispatch de conclusão do CompletableFuture).
+ * O cliente é identificado pelo cabeçalho X-Client-Id ou, na falta dele, pelo endereço de origem.
+ */
+@Component
+@ConditionalOnProperty("usuarios.replicas.urls")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_CLIENTS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(@Value("${usuarios.replicas.read-your-writes:5s}") Duration window) {
+        this.recentWriters = window.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(MAX_CLIENTS)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (recentWriters == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String client = client(request);
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            recentWriters.put(client, Boolean.TRUE);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+            return;
+        }
+
+        if (recentWriters.getIfPresent(client) == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private static String client(HttpServletRequest request) {
+        String client = request.getHeader(CLIENT_HEADER);
+        return client == null || client.isBlank() ? request.getRemoteAddr() : client;
+    }
+}
@@ -0,0 +1,130 @@
+package velsis.back.configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que envia as transações somente leitura (@Transactional(readOnly = true)) para as réplicas
+ * e todo o resto (escritas e acessos fora de transação) para o primário
+ * A conexão física só é obtida no primeiro comando (LazyConnectionDataSourceProxy), quando já se sabe
+ * se a transação é somente leitura. Entre as réplicas a escolha é round-robin ou pela que tem menos conexões em uso.
+ * Enquanto a thread estiver presa ao primário (janela de read-your-writes), as leituras também vão para o primário.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    public enum Balance {
+        ROUND_ROBIN, LEAST_CONNECTIONS;
+
+        public static Balance from(String value) {
+            return valueOf(value.trim().replace('-', '_').toUpperCase());
+        }
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final Balance balance;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Balance balance) {
+        super(primary);
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos uma réplica");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.balance = balance;
+        setReadOnlyDataSource(new ReplicaSelector());
+    }
+
+    /**
+     * Faz as leituras da thread atual irem para o primário até o unpin, inclusive em transações somente leitura
+     */
+    public static void pinToPrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PRIMARY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY.get() != null;
+    }
+
+    /**
+     * Executa a leitura no primário; sem réplicas configuradas é só a chamada da ação
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (isPinnedToPrimary()) {
+            return action.get();
+        }
+
+        pinToPrimary();
+        try {
+            return action.get();
+        } finally {
+            unpin();
+        }
+    }
+
+    HikariDataSource primary() {
+        return primary;
+    }
+
+    List<HikariDataSource> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    private HikariDataSource nextReplica() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        if (balance == Balance.ROUND_ROBIN) {
+            return replicas.get(start);
+        }
+
+        HikariDataSource chosen = null;
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariDataSource replica = replicas.get((start + i) % replicas.size());
+            HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+            int active = pool == null ? 0 : pool.getActiveConnections();
+            if (active < fewest) {
+                chosen = replica;
+                fewest = active;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Origem das conexões das transações somente leitura
+     */
+    private final class ReplicaSelector extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return (isPinnedToPrimary() ? primary : nextReplica()).getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return (isPinnedToPrimary() ? primary : nextReplica()).getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package velsis.back.configurations;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registra quando uma virtual thread fica presa à thread de plataforma (pinning) por mais que o limite
+ * No Java 21 isso acontece ao bloquear dentro de um bloco synchronized ou de código nativo, por exemplo
+ * no caminho do driver JDBC, e impede que a thread de plataforma atenda outras requisições.
+ * Usa o evento jdk.VirtualThreadPinned do JFR e só é iniciado com spring.threads.virtual.enabled.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final AtomicLong pinned = new AtomicLong();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                       @Value("${usuarios.virtual-threads.pinning-monitor:true}") boolean monitor,
+                                       @Value("${usuarios.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        this.enabled = virtualThreads && monitor;
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+        log.info("Monitorando pinning de virtual threads acima de {} ms", threshold.toMillis());
+    }
+
+    /**
+     * Quantidade de pinnings acima do limite desde a inicialização
+     */
+    public long pinnedCount() {
+        return pinned.get();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.incrementAndGet();
+
+        StringBuilder frames = new StringBuilder();
+        List<RecordedFrame> stack = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        for (int i = 0; i < Math.min(stack.size(), LOGGED_FRAMES); i++) {
+            RecordedFrame frame = stack.get(i);
+            frames.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        log.warn("Virtual thread presa à thread de plataforma por {} ms{}", event.getDuration().toMillis(), frames);
+    }
+}
@@ -0,0 +1,51 @@
+package velsis.back.controllers;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import velsis.back.api.CepCache;
+import velsis.back.dtos.CacheStatsDTO;
+import velsis.back.services.UsuarioForUpdateCache;
+
+import java.util.List;
+
+@RequestMapping("/caches")
+@RestController
+public class CacheController {
+
+    private final CepCache cepCache;
+    private final UsuarioForUpdateCache usuarioForUpdateCache;
+
+    public CacheController(CepCache cepCache, UsuarioForUpdateCache usuarioForUpdateCache) {
+        this.cepCache = cepCache;
+        this.usuarioForUpdateCache = usuarioForUpdateCache;
+    }
+
+    /**
+     * Recupera as estatísticas dos caches em memória
+     * Usado para acompanhar a taxa de acerto e dimensionar os caches
+     */
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDTO>> findCacheStats(){
+        return new ResponseEntity<>(List.of(
+                toDTO("cep", cepCache.size(), cepCache.stats()),
+                toDTO("usuario-edit", usuarioForUpdateCache.size(), usuarioForUpdateCache.stats())
+        ), HttpStatus.OK);
+    }
+
+    private CacheStatsDTO toDTO(String name, long size, CacheStats stats){
+        return new CacheStatsDTO(
+                name,
+                size,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                stats.loadFailureCount(),
+                stats.averageLoadPenalty() / 1_000_000.0
+        );
+    }
+}
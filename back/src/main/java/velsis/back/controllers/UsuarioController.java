@@ -1,6 +1,10 @@
 package velsis.back.controllers;
 
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -12,18 +16,43 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import velsis.back.configurations.ConcurrencyLimited;
+import velsis.back.configurations.ConcurrencyLimited.Pool;
+import velsis.back.configurations.ReplicaRoutingDataSource;
+import velsis.back.dtos.FileFormat;
+import velsis.back.dtos.BatchImportResultDTO;
+import velsis.back.dtos.BulkDeleteUsuarioDTO;
+import velsis.back.dtos.BulkPatchUsuarioDTO;
+import velsis.back.dtos.BulkResultDTO;
 import velsis.back.dtos.CreateUsuarioDTO;
+import velsis.back.dtos.PatchUsuarioDTO;
 import velsis.back.dtos.UpdateAddressUsuarioDTO;
 import velsis.back.dtos.UpdateBirthDateUsuarioDTO;
 import velsis.back.dtos.UpdateDocumentUsuarioDTO;
 import velsis.back.dtos.UpdateNameUsuarioDTO;
 import velsis.back.dtos.UpdateUsuarioDTO;
 import velsis.back.dtos.UsuarioDTO;
+import velsis.back.dtos.UsuarioFilter;
 import velsis.back.dtos.UsuarioForUpdateDTO;
+import velsis.back.dtos.UsuarioPageDTO;
+import velsis.back.dtos.UsuarioSearchDTO;
+import velsis.back.dtos.UsuarioStatsDTO;
+import velsis.back.dtos.UsuarioSort;
+import velsis.back.exceptions.PreconditionFailedException;
+import velsis.back.services.IdempotencyService;
+import velsis.back.services.UsuarioExportService;
+import velsis.back.services.UsuarioImportService;
 import velsis.back.services.UsuarioService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RequestMapping("/usuarios")
 @RestController
@@ -31,44 +60,190 @@ import java.util.List;
 public class UsuarioController {
 
     private final UsuarioService usuarioService;
+    private final UsuarioExportService usuarioExportService;
+    private final UsuarioImportService usuarioImportService;
+    private final IdempotencyService idempotencyService;
+    private final boolean replicaReads;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService,
+                             UsuarioExportService usuarioExportService,
+                             UsuarioImportService usuarioImportService,
+                             IdempotencyService idempotencyService,
+                             @Value("${usuarios.replicas.urls:}") String replicaUrls) {
         this.usuarioService = usuarioService;
+        this.usuarioExportService = usuarioExportService;
+        this.usuarioImportService = usuarioImportService;
+        this.idempotencyService = idempotencyService;
+        this.replicaReads = !replicaUrls.isBlank();
     }
 
     /**
      * Cria um novo usuário no sistema com validação completa
      * Realiza consulta de CEP via ViaCEP e validação de documento único
+     * A thread da requisição é liberada durante a consulta do CEP; a resposta é enviada após a gravação
      *
      * @param dto DTO com dados obrigatórios do usuário (nome, documento, CEP, etc.)
+     * @param idempotencyKey chave opcional; repetições com a mesma chave recebem o resultado da primeira execução
      * @return HTTP 201 (Created) em caso de sucesso
      * @throws MethodArgumentNotValidException se os dados de entrada forem inválidos
      * @throws DocumentExistException se o documento já estiver cadastrado
      * @throws CepNotFoundException se o CEP não for encontrado
+     * @throws OverloadedException se o limite de escritas simultâneas for atingido
      */
+    @ConcurrencyLimited(Pool.WRITE)
     @PostMapping
-    public ResponseEntity<Void> createUsuario(@RequestBody @Valid CreateUsuarioDTO dto){
-        usuarioService.createUsuario(dto);
+    public CompletableFuture<ResponseEntity<Void>> createUsuario(@RequestBody @Valid CreateUsuarioDTO dto,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return idempotencyService.executeAsync(idempotencyKey, "POST /usuarios", () -> usuarioService.createUsuario(dto)
+                .thenApply(created -> new ResponseEntity<>(HttpStatus.CREATED)), dto);
+    }
 
-        return new ResponseEntity<>(HttpStatus.CREATED);
+    /**
+     * Importa usuários em lote a partir de um CSV (text/csv, com cabeçalho) ou NDJSON (application/x-ndjson)
+     * Cada linha é validada com as mesmas regras do cadastro individual e o resultado é informado por linha
+     *
+     * @param contentType formato do corpo da requisição
+     * @param body conteúdo enviado, lido em streaming
+     * @return HTTP 200 (OK) com o relatório da importação
+     * @throws FileFormatException se o formato ou o cabeçalho do CSV não forem suportados
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchImportResultDTO> importUsuarios(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                               InputStream body) throws IOException {
+        return new ResponseEntity<>(usuarioImportService.importUsuarios(FileFormat.fromContentType(contentType), body), HttpStatus.OK);
     }
 
     /**
      * Recupera lista de todos os usuários cadastrados no sistema
      * Retorna dados resumidos para otimização de performance
+     * Com Accept application/cbor ou application/x-jackson-smile a mesma lista vem em formato binário
+     * Responde 304 (Not Modified) ao If-None-Match sem consultar o banco quando nada mudou
+     *
+     * @param filter filtros opcionais: name (prefixo), state, city, birth_from/birth_to,
+     *               created_from/created_to e updated_from/updated_to (datas ISO, ex.: 1990-01-31)
+     * @param sort campo de ordenação: id (padrão), name, city, state ou birth_date
+     * @param direction asc (padrão) ou desc
+     * @throws InvalidSortException se a ordenação não for suportada
      */
+    @ConcurrencyLimited(Pool.READ)
     @GetMapping
-    public ResponseEntity<List<UsuarioDTO>> findAllUsuarios(){
-        return new ResponseEntity<>(usuarioService.findAllUsuarios(), HttpStatus.OK);
+    public ResponseEntity<List<UsuarioDTO>> findAllUsuarios(UsuarioFilter filter,
+                                                            @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+                                                            WebRequest request){
+        UsuarioSort usuarioSort = UsuarioSort.from(sort);
+        boolean descending = UsuarioSort.descending(direction);
+
+        String etag = listEtag(usuarioService.listVersion());
+        if(listNotModified(request, etag)){
+            return null;
+        }
+
+        return listResponse(etag, usuarioService.findAllUsuarios(filter, usuarioSort, descending));
+    }
+
+    /**
+     * Recupera uma página de usuários usando paginação por keyset
+     * Ativada quando o parâmetro limit é informado (ex.: /usuarios?limit=20&after=aWQKMTIwCg)
+     *
+     * @param after next_cursor da página anterior, opaco; ausente na primeira página
+     * @param limit quantidade máxima de usuários na página
+     * @param total se deve incluir o total de usuários cadastrados (que atendem aos filtros)
+     * @param filter filtros opcionais, os mesmos da listagem completa
+     * @param sort campo de ordenação: id (padrão), name, city, state ou birth_date
+     * @param direction asc (padrão) ou desc
+     * @return HTTP 200 (OK) com a página e o cursor da próxima, ou 304 (Not Modified) se nada mudou
+     * @throws InvalidSortException se a ordenação não for suportada
+     * @throws InvalidCursorException se o cursor for inválido ou de outra ordenação
+     */
+    @ConcurrencyLimited(Pool.READ)
+    @GetMapping(params = "limit")
+    public ResponseEntity<UsuarioPageDTO> findUsuariosPage(@RequestParam(value = "after", required = false) String after,
+                                                           @RequestParam("limit") int limit,
+                                                           @RequestParam(value = "total", defaultValue = "false") boolean total,
+                                                           UsuarioFilter filter,
+                                                           @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                           @RequestParam(value = "direction", defaultValue = "asc") String direction,
+                                                           WebRequest request){
+        UsuarioSort usuarioSort = UsuarioSort.from(sort);
+        boolean descending = UsuarioSort.descending(direction);
+        String etag = listEtag(usuarioService.listVersion());
+        if(listNotModified(request, etag)){
+            return null;
+        }
+
+        return listResponse(etag, usuarioService.findUsuariosPage(after, limit, total, filter, usuarioSort, descending));
+    }
+
+    /**
+     * Busca usuários pelo trecho do nome, para o campo de seleção com autocompletar
+     * Consulta um índice de trigramas em memória, sem LIKE '%...%' no banco
+     *
+     * @param q texto digitado
+     * @param limit quantidade máxima de resultados (padrão 10, máximo 50)
+     * @return HTTP 200 (OK) com id, nome e score de similaridade, do mais parecido para o menos
+     */
+    @ConcurrencyLimited(Pool.READ)
+    @GetMapping("/search")
+    public ResponseEntity<List<UsuarioSearchDTO>> searchUsuarios(@RequestParam("q") String q,
+                                                                 @RequestParam(value = "limit", defaultValue = "10") int limit){
+        return new ResponseEntity<>(usuarioService.searchUsuarios(q, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Estatísticas dos usuários: total, por estado e cidade e por faixa etária
+     * Calculadas a partir de contadores em memória, sem consultar o banco
+     *
+     * @return HTTP 200 (OK) com as contagens
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<UsuarioStatsDTO> findUsuarioStats(){
+        return new ResponseEntity<>(usuarioService.stats(), HttpStatus.OK);
+    }
+
+    /**
+     * Exporta todos os usuários em NDJSON, CSV, CBOR ou Smile
+     * As linhas são escritas na resposta conforme são lidas do banco, com uso de memória constante
+     *
+     * @param format formato da exportação: ndjson, csv, cbor ou smile; sem o parâmetro, o formato vem do Accept
+     *               (application/x-ndjson, text/csv, application/cbor-seq ou application/x-jackson-smile; padrão NDJSON)
+     * @return HTTP 200 (OK) com o conteúdo enviado em streaming
+     * @throws FileFormatException se o formato não for suportado
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsuarios(@RequestParam(value = "format", required = false) String format,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        FileFormat fileFormat = format == null ? FileFormat.fromAccept(accept) : FileFormat.from(format);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, fileFormat.contentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=usuarios." + fileFormat.extension())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(out -> usuarioExportService.exportUsuarios(fileFormat, out));
     }
 
     /**
      * Recupera o usuário cadastrado no sistema
-     * Retorna dados resumidos para atualização
+     * Retorna dados resumidos para atualização, com a versão do usuário no ETag
+     * O ETag deve ser enviado no If-Match das atualizações para não sobrescrever alterações concorrentes
      */
+    @ConcurrencyLimited(Pool.READ)
     @GetMapping("/{id}")
-    public ResponseEntity<List<UsuarioForUpdateDTO>> findUsuarioForUpdate(@PathVariable("id") Long id){
-        return new ResponseEntity<>(usuarioService.findUsuarioForUpdate(id), HttpStatus.OK);
+    public ResponseEntity<List<UsuarioForUpdateDTO>> findUsuarioForUpdate(@PathVariable("id") Long id, WebRequest request){
+        List<UsuarioForUpdateDTO> usuario = usuarioService.findUsuarioForUpdate(id);
+        if(usuario.isEmpty()){
+            return new ResponseEntity<>(usuario, HttpStatus.OK);
+        }
+
+        String etag = etag(usuario.getFirst().version());
+        if(request.checkNotModified(etag)){
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(usuario);
     }
 
     /**
@@ -76,14 +251,49 @@ public class UsuarioController {
      * Operação irreversível - remove todos os dados do usuário
      *
      * @param id ID do usuário a ser excluído (obrigatório)
+     * @param idempotencyKey chave opcional; repetições com a mesma chave recebem o resultado da primeira execução
      * @return HTTP 200 (OK) em caso de sucesso
      * @throws UsuarioNotFoundException se o usuário não for encontrado
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUsuario(@PathVariable("id") Long id){
-        usuarioService.deleteUsuario(id);
+    public ResponseEntity<Void> deleteUsuario(@PathVariable("id") Long id,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return idempotencyService.execute(idempotencyKey, "DELETE /usuarios/{id}", () -> {
+            usuarioService.deleteUsuario(id);
+            return new ResponseEntity<>(HttpStatus.OK);
+        }, id);
+    }
 
-        return new ResponseEntity<>(HttpStatus.OK);
+    /**
+     * Exclui em lote os usuários informados por id ou selecionados pelos filtros da listagem
+     * Executado em blocos, com um SELECT e um DELETE ... WHERE id IN (...) por bloco, cada um na sua transação
+     *
+     * @param dto ids (ex.: {"ids": [1, 2, 3]}) ou filtros da listagem (ex.: {"filter": {"state": "SP"}})
+     * @return HTTP 200 (OK) com o resultado por id: DONE ou NOT_FOUND
+     * @throws InvalidBulkRequestException se a seleção estiver vazia, for ambígua ou grande demais
+     */
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkResultDTO> deleteUsuarios(@RequestBody BulkDeleteUsuarioDTO dto){
+        return new ResponseEntity<>(usuarioService.deleteUsuarios(dto), HttpStatus.OK);
+    }
+
+    /**
+     * Altera os mesmos campos (nome, data de nascimento, CEP e número) em lote, nos usuários informados por id
+     * ou selecionados pelos filtros da listagem
+     * O CEP é consultado uma única vez; a gravação é feita em blocos, com um UPDATE ... WHERE id IN (...) por bloco
+     *
+     * @param dto ids ou filtros e os campos a alterar; campos ausentes ou nulos são mantidos
+     * @return HTTP 200 (OK) com o resultado por id: DONE ou NOT_FOUND
+     * @throws MethodArgumentNotValidException se os campos forem inválidos
+     * @throws InvalidBulkRequestException se a seleção for inválida ou nenhum campo for informado
+     * @throws CepNotFoundException se o CEP não for encontrado
+     * @throws CepServiceException se ocorrer um erro na requisição
+     * @throws OverloadedException se o limite de escritas simultâneas for atingido
+     */
+    @ConcurrencyLimited(Pool.WRITE)
+    @PatchMapping("/bulk")
+    public CompletableFuture<ResponseEntity<BulkResultDTO>> patchUsuarios(@RequestBody @Valid BulkPatchUsuarioDTO dto){
+        return usuarioService.patchUsuarios(dto).thenApply(result -> new ResponseEntity<>(result, HttpStatus.OK));
     }
 
     /**
@@ -91,15 +301,21 @@ public class UsuarioController {
      * Valida se o novo nome atende aos requisitos mínimos
      *
      * @param dto DTO contendo ID do usuário e novo nome
+     * @param ifMatch ETag obtido no GET /usuarios/{id}; se informado, a alteração só é aplicada sobre essa versão
+     * @param idempotencyKey chave opcional de idempotência
      * @return HTTP 200 (OK) em caso de sucesso
      * @throws UsuarioNotFoundException se o usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão do If-Match
      * @throws UpdateNameException se o nome for nulo ou inválido
      */
     @PatchMapping("/name")
-    public ResponseEntity<Void> updateNameUsuario(@RequestBody @Valid UpdateNameUsuarioDTO dto){
-        usuarioService.updateNameUsuario(dto);
-
-        return new ResponseEntity<>(HttpStatus.OK);
+    public ResponseEntity<Void> updateNameUsuario(@RequestBody @Valid UpdateNameUsuarioDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return idempotencyService.execute(idempotencyKey, "PATCH /usuarios/name", () -> {
+            usuarioService.updateNameUsuario(dto, expectedVersion(ifMatch));
+            return new ResponseEntity<>(HttpStatus.OK);
+        }, dto, ifMatch);
     }
 
     /**
@@ -107,32 +323,45 @@ public class UsuarioController {
      * Valida se a data é anterior à data atual
      *
      * @param dto DTO contendo ID do usuário e nova data de nascimento
+     * @param ifMatch ETag da versão esperada (opcional)
+     * @param idempotencyKey chave opcional de idempotência
      * @return HTTP 200 (OK) em caso de sucesso
      * @throws UsuarioNotFoundException se o usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão do If-Match
      * @throws UpdateBirthDateException se a data for nula ou futura
      */
     @PatchMapping("/birthDate")
-    public ResponseEntity<Void> updateBirthDateUsuario(@RequestBody @Valid UpdateBirthDateUsuarioDTO dto){
-        usuarioService.updateBirthDateUsuario(dto);
-
-        return new ResponseEntity<>(HttpStatus.OK);
+    public ResponseEntity<Void> updateBirthDateUsuario(@RequestBody @Valid UpdateBirthDateUsuarioDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return idempotencyService.execute(idempotencyKey, "PATCH /usuarios/birthDate", () -> {
+            usuarioService.updateBirthDateUsuario(dto, expectedVersion(ifMatch));
+            return new ResponseEntity<>(HttpStatus.OK);
+        }, dto, ifMatch);
     }
 
     /**
      * Atualiza o endereço completo do usuário consultando novo CEP
-     * Realiza nova consulta ao ViaCEP para validar e completar endereço
+     * Realiza nova consulta ao ViaCEP para validar e completar endereço, sem prender a thread da requisição
      *
      * @param dto DTO contendo ID do usuário, novo CEP e número do endereço
+     * @param ifMatch ETag da versão esperada (opcional)
+     * @param idempotencyKey chave opcional de idempotência
      * @return HTTP 200 (OK) em caso de sucesso
      * @throws UsuarioNotFoundException se o usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão do If-Match
      * @throws CepNotFoundException se o novo CEP não for encontrado
      * @throws CepServiceException se ocorrer um erro na requisição
+     * @throws OverloadedException se o limite de escritas simultâneas for atingido
      */
+    @ConcurrencyLimited(Pool.WRITE)
     @PatchMapping("/address")
-    public ResponseEntity<Void> updateAddressUsuario(@RequestBody @Valid UpdateAddressUsuarioDTO dto){
-        usuarioService.updateAddressUsuario(dto);
-
-        return new ResponseEntity<>(HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<Void>> updateAddressUsuario(@RequestBody @Valid UpdateAddressUsuarioDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return idempotencyService.executeAsync(idempotencyKey, "PATCH /usuarios/address", () -> usuarioService
+                .updateAddressUsuario(dto, expectedVersion(ifMatch))
+                .thenApply(updated -> new ResponseEntity<>(HttpStatus.OK)), dto, ifMatch);
     }
 
     /**
@@ -140,31 +369,154 @@ public class UsuarioController {
      * Verifica se o novo documento não pertence a outro usuário
      *
      * @param dto DTO contendo ID do usuário e novo documento
+     * @param ifMatch ETag da versão esperada (opcional)
+     * @param idempotencyKey chave opcional de idempotência
      * @return HTTP 200 (OK) em caso de sucesso
      * @throws UsuarioNotFoundException se o usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão do If-Match
      * @throws UpdateDocumentException se o documento for nulo ou inválido
      */
     @PatchMapping("/document")
-    public ResponseEntity<Void> updateDocumentUsuario(@RequestBody @Valid UpdateDocumentUsuarioDTO dto){
-        usuarioService.updateDocumentUsuario(dto);
+    public ResponseEntity<Void> updateDocumentUsuario(@RequestBody @Valid UpdateDocumentUsuarioDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return idempotencyService.execute(idempotencyKey, "PATCH /usuarios/document", () -> {
+            usuarioService.updateDocumentUsuario(dto, expectedVersion(ifMatch));
+            return new ResponseEntity<>(HttpStatus.OK);
+        }, dto, ifMatch);
+    }
 
-        return new ResponseEntity<>(HttpStatus.OK);
+    /**
+     * Atualiza qualquer combinação de campos do usuário com um JSON merge-patch
+     * Todos os campos informados são gravados em um único UPDATE e uma única transação
+     *
+     * @param id ID do usuário
+     * @param dto Campos a alterar; campos ausentes ou nulos são mantidos
+     * @param ifMatch ETag da versão esperada (opcional)
+     * @param idempotencyKey chave opcional de idempotência
+     * @return HTTP 200 (OK) em caso de sucesso
+     * @throws UsuarioNotFoundException se o usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão do If-Match
+     * @throws DocumentExistException se o documento pertencer a outro usuário
+     * @throws CepNotFoundException se o novo CEP não for encontrado
+     * @throws CepServiceException se ocorrer um erro na requisição
+     * @throws OverloadedException se o limite de escritas simultâneas for atingido
+     */
+    @ConcurrencyLimited(Pool.WRITE)
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    public CompletableFuture<ResponseEntity<Void>> patchUsuario(@PathVariable("id") long id, @RequestBody @Valid PatchUsuarioDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return idempotencyService.executeAsync(idempotencyKey, "PATCH /usuarios/{id}", () -> usuarioService
+                .patchUsuario(id, dto, expectedVersion(ifMatch))
+                .thenApply(updated -> new ResponseEntity<>(HttpStatus.OK)), id, dto, ifMatch);
     }
 
     /**
      * Atualiza todos os dados do usuário em uma única operação
      * Combina validações de documento, CEP e dados básicos
+     * A thread da requisição é liberada durante a consulta do CEP
      *
      * @param dto DTO com todos os campos atualizáveis do usuário
+     * @param ifMatch ETag da versão esperada (opcional)
+     * @param idempotencyKey chave opcional de idempotência
      * @return HTTP 200 (OK) em caso de sucesso
      * @throws UsuarioNotFoundException se o usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão do If-Match
      * @throws CepNotFoundException se o novo CEP não for encontrado
      * @throws CepServiceException se ocorrer um erro na requisição
+     * @throws OverloadedException se o limite de escritas simultâneas for atingido
      */
+    @ConcurrencyLimited(Pool.WRITE)
     @PutMapping
-    public ResponseEntity<Void> updateUsuario(@RequestBody @Valid UpdateUsuarioDTO dto){
-        usuarioService.updateUsuario(dto);
+    public CompletableFuture<ResponseEntity<Void>> updateUsuario(@RequestBody @Valid UpdateUsuarioDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return idempotencyService.executeAsync(idempotencyKey, "PUT /usuarios", () -> usuarioService
+                .updateUsuario(dto, expectedVersion(ifMatch))
+                .thenApply(updated -> new ResponseEntity<>(HttpStatus.OK)), dto, ifMatch);
+    }
+
+    private static String etag(long version){
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Resposta das listagens com o ETag da versão lida antes da consulta
+     * Quando a consulta foi para uma réplica, a resposta sai sem ETag: a versão vem das escritas confirmadas
+     * no primário e a réplica pode estar atrasada, então o ETag novo acompanharia linhas antigas.
+     * O If-None-Match continua valendo, pois os ETags em poder dos clientes só vêm de leituras no primário.
+     */
+    private <T> ResponseEntity<T> listResponse(String etag, T body){
+        if(readsFromReplica()){
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(body);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    /**
+     * Compara o If-None-Match das listagens com o ETag atual
+     * Na leitura em réplica a comparação é feita aqui porque o checkNotModified também grava o ETag na resposta 200
+     */
+    private boolean listNotModified(WebRequest request, String etag){
+        if(!readsFromReplica()){
+            return request.checkNotModified(etag);
+        }
+
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if(ifNoneMatch == null){
+            return false;
+        }
+
+        ETag current = ETag.create(etag);
+        for(String value : ifNoneMatch){
+            for(ETag candidate : ETag.parse(value)){
+                if(candidate.isWildcard() || candidate.compare(current, false)){
+                    return request.checkNotModified(etag);
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean readsFromReplica(){
+        return replicaReads && !ReplicaRoutingDataSource.isPinnedToPrimary();
+    }
+
+    /**
+     * ETag fraco das listagens: identifica a versão dos dados, não os bytes, que mudam com o formato
+     * negociado (JSON, CBOR, Smile); o Tomcat também só comprime respostas sem ETag forte
+     */
+    private static String listEtag(long version){
+        return "W/" + etag(version);
+    }
+
+    /**
+     * Lê a versão esperada do cabeçalho If-Match
+     * Ausente ou "*" não condiciona a atualização; ETags fracos ou inválidos nunca correspondem
+     */
+    private static Long expectedVersion(String ifMatch){
+        if(ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")){
+            return null;
+        }
+
+        String value = ifMatch.trim();
+        if(value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")){
+            throw new PreconditionFailedException();
+        }
 
-        return new ResponseEntity<>(HttpStatus.OK);
+        try {
+            return Long.parseLong(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException();
+        }
     }
 }
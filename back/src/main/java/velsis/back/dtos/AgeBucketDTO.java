@@ -0,0 +1,11 @@
+package velsis.back.dtos;
+
+/**
+ * Faixa etária, de min_age até max_age inclusive (max_age nulo na última faixa)
+ */
+public record AgeBucketDTO(
+        int min_age,
+        Integer max_age,
+        long total
+) {
+}
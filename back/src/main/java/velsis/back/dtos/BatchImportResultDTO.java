@@ -0,0 +1,11 @@
+package velsis.back.dtos;
+
+import java.util.List;
+
+public record BatchImportResultDTO(
+        int total,
+        int created,
+        int failed,
+        List<BatchRowResultDTO> rows
+) {
+}
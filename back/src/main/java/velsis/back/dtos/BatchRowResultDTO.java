@@ -0,0 +1,11 @@
+package velsis.back.dtos;
+
+import java.util.List;
+
+public record BatchRowResultDTO(
+        int line,
+        BatchRowStatus status,
+        Long id,
+        List<String> errors
+) {
+}
@@ -0,0 +1,9 @@
+package velsis.back.dtos;
+
+public enum BatchRowStatus {
+    CREATED,
+    INVALID,
+    DUPLICATE,
+    CEP_NOT_FOUND,
+    CEP_ERROR
+}
@@ -0,0 +1,12 @@
+package velsis.back.dtos;
+
+import java.util.List;
+
+/**
+ * Seleção dos usuários de uma operação em lote: lista de ids ou filtros da listagem (exatamente um dos dois)
+ */
+public record BulkDeleteUsuarioDTO(
+        List<Long> ids,
+        UsuarioFilter filter
+) {
+}
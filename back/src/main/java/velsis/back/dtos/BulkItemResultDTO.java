@@ -0,0 +1,7 @@
+package velsis.back.dtos;
+
+public record BulkItemResultDTO(
+        long id,
+        BulkItemStatus status
+) {
+}
@@ -0,0 +1,6 @@
+package velsis.back.dtos;
+
+public enum BulkItemStatus {
+    DONE,
+    NOT_FOUND
+}
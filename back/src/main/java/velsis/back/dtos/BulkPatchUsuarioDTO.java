@@ -0,0 +1,26 @@
+package velsis.back.dtos;
+
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Alteração dos mesmos campos em vários usuários, selecionados por ids ou pelos filtros da listagem
+ * Campos ausentes ou nulos não são alterados; o document não pode ser alterado em lote por ser único
+ */
+public record BulkPatchUsuarioDTO(
+        List<Long> ids,
+        UsuarioFilter filter,
+        @Size(min = 3, message = "Nome deve ter pelo menos 3 caracteres")
+        String name,
+        @Past(message = "Data de nascimento deve ser uma data passada")
+        LocalDate birth_date,
+        Integer address_number,
+        @Size(min = 8, max = 8, message = "CEP deve ter exatamente 8 caracteres")
+        @Pattern(regexp = "\\d{8}", message = "CEP deve conter apenas números")
+        String zip
+) {
+}
@@ -0,0 +1,16 @@
+package velsis.back.dtos;
+
+import java.util.List;
+
+public record BulkResultDTO(
+        int total,
+        int done,
+        int not_found,
+        List<BulkItemResultDTO> items
+) {
+
+    public static BulkResultDTO of(List<BulkItemResultDTO> items) {
+        int done = (int) items.stream().filter(item -> item.status() == BulkItemStatus.DONE).count();
+        return new BulkResultDTO(items.size(), done, items.size() - done, items);
+    }
+}
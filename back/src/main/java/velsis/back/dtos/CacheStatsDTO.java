@@ -0,0 +1,13 @@
+package velsis.back.dtos;
+
+public record CacheStatsDTO(
+        String name,
+        long size,
+        long hits,
+        long misses,
+        double hit_rate,
+        long evictions,
+        long load_failures,
+        double average_load_millis
+) {
+}
@@ -0,0 +1,7 @@
+package velsis.back.dtos;
+
+public record CityStatsDTO(
+        String city,
+        long total
+) {
+}
@@ -0,0 +1,70 @@
+package velsis.back.dtos;
+
+import velsis.back.exceptions.FileFormatException;
+
+/**
+ * Formatos de importação e exportação
+ * CBOR (sequência de itens CBOR, RFC 8742) e Smile são apenas de exportação, um item por usuário.
+ */
+public enum FileFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv"),
+    CBOR("application/cbor-seq", "cbor"),
+    SMILE("application/x-jackson-smile", "smile");
+
+    private final String contentType;
+    private final String extension;
+
+    FileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static FileFormat from(String value) {
+        for (FileFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new FileFormatException(value);
+    }
+
+    public boolean binary() {
+        return this == CBOR || this == SMILE;
+    }
+
+    /**
+     * Primeiro formato suportado do cabeçalho Accept, na ordem enviada; NDJSON se nenhum for suportado
+     */
+    public static FileFormat fromAccept(String accept) {
+        if (accept != null) {
+            for (String value : accept.split(",")) {
+                String mediaType = value.split(";")[0].trim();
+                for (FileFormat format : values()) {
+                    if (format.contentType.equalsIgnoreCase(mediaType)) {
+                        return format;
+                    }
+                }
+            }
+        }
+        return NDJSON;
+    }
+
+    public static FileFormat fromContentType(String contentType) {
+        String mediaType = contentType == null ? "" : contentType.split(";")[0].trim();
+        for (FileFormat format : values()) {
+            if (format.contentType.equalsIgnoreCase(mediaType)) {
+                return format;
+            }
+        }
+        throw new FileFormatException(contentType);
+    }
+}
@@ -0,0 +1,10 @@
+package velsis.back.dtos;
+
+import java.util.List;
+
+public record StateStatsDTO(
+        String state,
+        long total,
+        List<CityStatsDTO> cities
+) {
+}
@@ -0,0 +1,76 @@
+package velsis.back.dtos;
+
+import velsis.back.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição do último usuário de uma página na ordem (campo de ordenação, id)
+ * Vai ao cliente como texto opaco com o valor do campo, então a próxima página não depende de reler esse usuário,
+ * que pode ter sido removido, alterado ou ainda não ter chegado à réplica
+ *
+ * @param value valor do campo de ordenação no último usuário (null quando o campo é nulo ou a ordenação é por id)
+ */
+public record UsuarioCursor(UsuarioSort sort, Comparable<?> value, long id) {
+
+    private static final String SEPARATOR = "\n";
+
+    // marca o valor presente, para distinguir campo nulo de texto vazio
+    private static final String PRESENT = "=";
+
+    /**
+     * Cursor posicionado depois do usuário informado
+     */
+    public static UsuarioCursor after(UsuarioSort sort, UsuarioDTO usuario) {
+        Comparable<?> value = switch (sort) {
+            case ID -> null;
+            case NAME -> usuario.name();
+            case CITY -> usuario.city();
+            case STATE -> usuario.state();
+            case BIRTH_DATE -> usuario.birth_date();
+        };
+        return new UsuarioCursor(sort, value, usuario.id());
+    }
+
+    public String encode() {
+        String text = sort.attribute() + SEPARATOR + id + SEPARATOR + (value == null ? "" : PRESENT + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lê o next_cursor devolvido na página anterior
+     * Na ordenação por id também aceita o id puro, o formato anterior do cursor
+     *
+     * @param cursor texto recebido do cliente; null, vazio ou "0" indicam a primeira página
+     * @return o cursor, ou null para a primeira página
+     * @throws InvalidCursorException se o texto não for um cursor ou tiver sido gerado para outra ordenação
+     */
+    public static UsuarioCursor decode(String cursor, UsuarioSort sort) {
+        if (cursor == null || cursor.isBlank() || cursor.equals("0")) {
+            return null;
+        }
+        try {
+            if (sort == UsuarioSort.ID && cursor.chars().allMatch(Character::isDigit)) {
+                return new UsuarioCursor(sort, null, Long.parseLong(cursor));
+            }
+
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+            if (parts.length != 3 || !parts[0].equals(sort.attribute())) {
+                throw new InvalidCursorException(cursor);
+            }
+            if (parts[2].isEmpty()) {
+                return new UsuarioCursor(sort, null, Long.parseLong(parts[1]));
+            }
+            if (!parts[2].startsWith(PRESENT)) {
+                throw new InvalidCursorException(cursor);
+            }
+            String value = parts[2].substring(PRESENT.length());
+            return new UsuarioCursor(sort, sort == UsuarioSort.BIRTH_DATE ? LocalDate.parse(value) : value, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package velsis.back.dtos;
+
+/**
+ * Id e document de um usuário, o suficiente para excluí-lo e atualizar o índice de documents
+ */
+public record UsuarioDocumentDTO(
+        Long id,
+        String document
+) {
+}
@@ -0,0 +1,41 @@
+package velsis.back.dtos;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros da listagem de usuários, lidos dos parâmetros da requisição
+ * Campos nulos não filtram; os intervalos de data incluem as duas pontas
+ */
+public record UsuarioFilter(
+        String name,
+        String state,
+        String city,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate birth_from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate birth_to,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate created_from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate created_to,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate updated_from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate updated_to
+) {
+
+    public static final UsuarioFilter NONE = new UsuarioFilter(null, null, null, null, null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return isBlank(name) && isBlank(state) && isBlank(city)
+                && birth_from == null && birth_to == null
+                && created_from == null && created_to == null
+                && updated_from == null && updated_to == null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -18,6 +18,7 @@ public record UsuarioForUpdateDTO(
         @Size(min = 8, max = 8, message = "CEP deve ter exatamente 8 caracteres")
         @Pattern(regexp = "\\d{8}", message = "CEP deve conter apenas números")
         String zip,
-        Integer address_number
+        Integer address_number,
+        long version
 ) {
 }
@@ -0,0 +1,10 @@
+package velsis.back.dtos;
+
+import java.util.List;
+
+public record UsuarioPageDTO(
+        List<UsuarioDTO> content,
+        String next_cursor,
+        Long total
+) {
+}
@@ -0,0 +1,8 @@
+package velsis.back.dtos;
+
+public record UsuarioSearchDTO(
+        Long id,
+        String name,
+        Double score
+) {
+}
@@ -0,0 +1,46 @@
+package velsis.back.dtos;
+
+import velsis.back.exceptions.InvalidSortException;
+
+/**
+ * Campos aceitos para ordenar a listagem; o id é sempre usado como desempate
+ */
+public enum UsuarioSort {
+    ID("id"),
+    NAME("name"),
+    CITY("city"),
+    STATE("state"),
+    BIRTH_DATE("birth_date");
+
+    private final String attribute;
+
+    UsuarioSort(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public static UsuarioSort from(String value) {
+        for (UsuarioSort sort : values()) {
+            if (sort.attribute.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new InvalidSortException(value);
+    }
+
+    /**
+     * @return true para "desc", false para "asc"
+     */
+    public static boolean descending(String direction) {
+        if ("asc".equalsIgnoreCase(direction)) {
+            return false;
+        }
+        if ("desc".equalsIgnoreCase(direction)) {
+            return true;
+        }
+        throw new InvalidSortException(direction);
+    }
+}
@@ -0,0 +1,12 @@
+package velsis.back.dtos;
+
+import java.util.List;
+
+public record UsuarioStatsDTO(
+        long total,
+        long without_address,
+        long without_birth_date,
+        List<StateStatsDTO> states,
+        List<AgeBucketDTO> age_buckets
+) {
+}
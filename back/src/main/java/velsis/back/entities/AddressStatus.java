@@ -0,0 +1,12 @@
+package velsis.back.entities;
+
+/**
+ * Situação do endereço do usuário
+ * PENDING indica que o CEP ainda será consultado em segundo plano (modo assíncrono)
+ * e INVALID que o CEP informado não existe no ViaCEP
+ */
+public enum AddressStatus {
+    RESOLVED,
+    PENDING,
+    INVALID
+}
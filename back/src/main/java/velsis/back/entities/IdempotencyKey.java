@@ -0,0 +1,46 @@
+package velsis.back.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Resultado de uma requisição com Idempotency-Key, compartilhado entre as instâncias
+ * (usuarios.idempotency.persistent=true)
+ */
+@Entity(name = "idempotency_key")
+@Table(name = "idempotency_key",
+        indexes = {@Index(name = "idx_idempotency_key_expires_at", columnList = "expires_at")})
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class IdempotencyKey {
+
+    /**
+     * SHA-256 da chave enviada pelo cliente
+     */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    /**
+     * SHA-256 da operação e do corpo da requisição
+     */
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    /**
+     * Status HTTP da resposta; nulo enquanto a primeira execução está em andamento
+     */
+    private Integer status;
+
+    @Column(nullable = false)
+    private Instant expires_at;
+}
@@ -1,11 +1,15 @@
 package velsis.back.entities;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -14,7 +18,17 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity(name = "usuario")
-@Table(name = "usuario", uniqueConstraints = {@UniqueConstraint(columnNames = {"document"})})
+@Table(name = "usuario",
+        uniqueConstraints = {@UniqueConstraint(columnNames = {"document"})},
+        indexes = {
+                @Index(name = "idx_usuario_address_status", columnList = "address_status"),
+                @Index(name = "idx_usuario_state_city", columnList = "state, city"),
+                @Index(name = "idx_usuario_name", columnList = "name"),
+                @Index(name = "idx_usuario_city", columnList = "city"),
+                @Index(name = "idx_usuario_birth_date", columnList = "birth_date"),
+                @Index(name = "idx_usuario_created_at", columnList = "created_at"),
+                @Index(name = "idx_usuario_updated_at", columnList = "updated_at")
+        })
 @AllArgsConstructor
 @Data
 @EqualsAndHashCode(of = "id")
@@ -33,6 +47,14 @@ public class Usuario {
     private String city;
     private String state;
     private String zip;
+    @Enumerated(EnumType.STRING)
+    private AddressStatus address_status;
     private LocalDate created_at;
     private LocalDate updated_at;
+
+    /**
+     * Incrementado a cada alteração; usado no ETag e nas atualizações condicionais (If-Match)
+     */
+    @Version
+    private long version;
 }
@@ -0,0 +1,66 @@
+package velsis.back.events;
+
+import velsis.back.entities.Usuario;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Evento publicado a cada escrita em usuário, consumido após o commit pelos índices em memória
+ * Em UPDATED, apenas os campos listados em fields foram alterados e têm valor no evento.
+ */
+public record UsuarioChangedEvent(
+        Type type,
+        long id,
+        Set<Field> fields,
+        String name,
+        LocalDate birth_date,
+        String document,
+        String city,
+        String state
+) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public enum Field { NAME, BIRTH_DATE, DOCUMENT, ADDRESS }
+
+    public boolean changed(Field field) {
+        return type == Type.CREATED || fields.contains(field);
+    }
+
+    public static UsuarioChangedEvent created(Usuario usuario) {
+        return created(usuario.getId(), usuario.getName(), usuario.getBirth_date(), usuario.getDocument(),
+                usuario.getCity(), usuario.getState());
+    }
+
+    public static UsuarioChangedEvent created(long id, String name, LocalDate birthDate, String document,
+                                              String city, String state) {
+        return new UsuarioChangedEvent(Type.CREATED, id, EnumSet.allOf(Field.class), name, birthDate, document, city, state);
+    }
+
+    public static UsuarioChangedEvent updated(Usuario usuario) {
+        return new UsuarioChangedEvent(Type.UPDATED, usuario.getId(), EnumSet.allOf(Field.class),
+                usuario.getName(), usuario.getBirth_date(), usuario.getDocument(), usuario.getCity(), usuario.getState());
+    }
+
+    public static UsuarioChangedEvent deleted(long id, String document) {
+        return new UsuarioChangedEvent(Type.DELETED, id, Set.of(), null, null, document, null, null);
+    }
+
+    public static UsuarioChangedEvent nameChanged(long id, String name) {
+        return new UsuarioChangedEvent(Type.UPDATED, id, EnumSet.of(Field.NAME), name, null, null, null, null);
+    }
+
+    public static UsuarioChangedEvent birthDateChanged(long id, LocalDate birthDate) {
+        return new UsuarioChangedEvent(Type.UPDATED, id, EnumSet.of(Field.BIRTH_DATE), null, birthDate, null, null, null);
+    }
+
+    public static UsuarioChangedEvent documentChanged(long id, String document) {
+        return new UsuarioChangedEvent(Type.UPDATED, id, EnumSet.of(Field.DOCUMENT), null, null, document, null, null);
+    }
+
+    public static UsuarioChangedEvent addressChanged(long id, String city, String state) {
+        return new UsuarioChangedEvent(Type.UPDATED, id, EnumSet.of(Field.ADDRESS), null, null, null, city, state);
+    }
+}
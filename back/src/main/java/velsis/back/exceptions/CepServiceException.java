@@ -5,4 +5,8 @@ public class CepServiceException extends RuntimeException{
     public CepServiceException(){
         super("Erro ao consultar o ViaCep");
     }
+
+    public CepServiceException(Throwable cause){
+        super("Erro ao consultar o ViaCep", cause);
+    }
 }
@@ -0,0 +1,8 @@
+package velsis.back.exceptions;
+
+public class FileFormatException extends RuntimeException{
+
+    public FileFormatException(String format){
+        super("Formato de arquivo inválido: " + format);
+    }
+}
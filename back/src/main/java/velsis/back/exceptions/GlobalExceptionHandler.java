@@ -1,5 +1,9 @@
 package velsis.back.exceptions;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -8,10 +12,21 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import velsis.back.dtos.ErrorDTO;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Converte as exceções em ErrorDTO e conta cada resposta no contador usuarios.errors (tags code e exception)
+ */
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Trata exceções de CEP inválido ou não encontrado no ViaCEP
      * Retorna status 400 (Bad Request) pois indica um erro nos dados fornecidos pelo cliente
@@ -20,7 +35,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(CepNotFoundException.class)
     public ResponseEntity<ErrorDTO> handleCepNotFound(CepNotFoundException ex) {
         ErrorDTO error = new ErrorDTO("INVALID_CEP", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return respond(HttpStatus.BAD_REQUEST, error, ex);
     }
 
     /**
@@ -31,7 +46,29 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(CepServiceException.class)
     public ResponseEntity<ErrorDTO> handleCepErro(CepServiceException ex) {
         ErrorDTO error = new ErrorDTO("CEP_ERROR", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        return respond(HttpStatus.SERVICE_UNAVAILABLE, error, ex);
+    }
+
+    /**
+     * Trata escritas recusadas porque a fila do pool de escrita está cheia
+     * Retorna status 503 (Service Unavailable) para que o cliente tente novamente mais tarde
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorDTO> handleRejectedExecution(RejectedExecutionException ex) {
+        ErrorDTO error = new ErrorDTO("SERVER_BUSY", "Servidor ocupado, tente novamente");
+        return respond(HttpStatus.SERVICE_UNAVAILABLE, error, ex);
+    }
+
+    /**
+     * Trata requisições recusadas pelo controle de admissão porque o limite de concorrência do endpoint foi atingido
+     * Retorna status 503 (Service Unavailable) com Retry-After, antes de ocupar threads e conexões com a requisição
+     */
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ErrorDTO> handleOverloaded(OverloadedException ex) {
+        ErrorDTO error = new ErrorDTO("OVERLOADED", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(count(error, ex));
     }
 
     /**
@@ -42,7 +79,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(DocumentExistException.class)
     public ResponseEntity<ErrorDTO> handleDocumentExist(DocumentExistException ex) {
         ErrorDTO error = new ErrorDTO("DOCUMENT_EXISTS", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        return respond(HttpStatus.CONFLICT, error, ex);
     }
 
     /**
@@ -53,7 +90,77 @@ public class GlobalExceptionHandler {
     @ExceptionHandler({UpdateBirthDateException.class, UpdateDocumentException.class, UpdateNameException.class})
     public ResponseEntity<ErrorDTO> handleUpdateValidationExceptions(RuntimeException ex) {
         ErrorDTO error = new ErrorDTO("INVALID_UPDATE", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return respond(HttpStatus.BAD_REQUEST, error, ex);
+    }
+
+    /**
+     * Trata pedidos de exportação ou importação em formato não suportado
+     * Retorna status 400 (Bad Request) pois o formato é informado pelo cliente
+     */
+    @ExceptionHandler(FileFormatException.class)
+    public ResponseEntity<ErrorDTO> handleFileFormat(FileFormatException ex) {
+        ErrorDTO error = new ErrorDTO("INVALID_FORMAT", ex.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, error, ex);
+    }
+
+    /**
+     * Trata atualizações condicionais (If-Match) sobre uma versão desatualizada do usuário
+     * Retorna status 412 (Precondition Failed) para que o cliente recarregue o usuário antes de tentar de novo
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorDTO> handlePreconditionFailed(PreconditionFailedException ex) {
+        ErrorDTO error = new ErrorDTO("PRECONDITION_FAILED", ex.getMessage());
+        return respond(HttpStatus.PRECONDITION_FAILED, error, ex);
+    }
+
+    /**
+     * Trata o reúso de uma Idempotency-Key com outra operação ou outro corpo
+     * Retorna status 422 (Unprocessable Entity), pois a chave identifica uma requisição diferente
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorDTO> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        ErrorDTO error = new ErrorDTO("IDEMPOTENCY_KEY_REUSED", ex.getMessage());
+        return respond(HttpStatus.UNPROCESSABLE_ENTITY, error, ex);
+    }
+
+    /**
+     * Trata repetições que esperaram demais pela primeira execução da mesma Idempotency-Key
+     * Retorna status 409 (Conflict) para que o cliente tente novamente mais tarde com a mesma chave
+     */
+    @ExceptionHandler(IdempotencyInProgressException.class)
+    public ResponseEntity<ErrorDTO> handleIdempotencyInProgress(IdempotencyInProgressException ex) {
+        ErrorDTO error = new ErrorDTO("IDEMPOTENCY_IN_PROGRESS", ex.getMessage());
+        return respond(HttpStatus.CONFLICT, error, ex);
+    }
+
+    /**
+     * Trata operações em lote sem seleção de usuários, com seleção ambígua ou grande demais, ou sem campos a alterar
+     * Retorna status 400 (Bad Request) pois a seleção é informada pelo cliente
+     */
+    @ExceptionHandler(InvalidBulkRequestException.class)
+    public ResponseEntity<ErrorDTO> handleInvalidBulkRequest(InvalidBulkRequestException ex) {
+        ErrorDTO error = new ErrorDTO("INVALID_BULK", ex.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, error, ex);
+    }
+
+    /**
+     * Trata pedidos de listagem com campo ou direção de ordenação não suportados
+     * Retorna status 400 (Bad Request) pois a ordenação é informada pelo cliente
+     */
+    @ExceptionHandler(InvalidSortException.class)
+    public ResponseEntity<ErrorDTO> handleInvalidSort(InvalidSortException ex) {
+        ErrorDTO error = new ErrorDTO("INVALID_SORT", ex.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, error, ex);
+    }
+
+    /**
+     * Trata páginas pedidas com um cursor que não foi gerado pela listagem ou que pertence a outra ordenação
+     * Retorna status 400 (Bad Request) pois o cursor é informado pelo cliente
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorDTO> handleInvalidCursor(InvalidCursorException ex) {
+        ErrorDTO error = new ErrorDTO("INVALID_CURSOR", ex.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, error, ex);
     }
 
     /**
@@ -64,7 +171,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(UsuarioNotFoundException.class)
     public ResponseEntity<ErrorDTO> handleUsuarioNotFound(UsuarioNotFoundException ex) {
         ErrorDTO error = new ErrorDTO("USER_NOT_FOUND", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        return respond(HttpStatus.NOT_FOUND, error, ex);
     }
 
     /**
@@ -81,7 +188,7 @@ public class GlobalExceptionHandler {
                 .toList();
 
         ErrorDTO errorResponse = new ErrorDTO("VALIDATION_ERROR", "Erro de validação", errors);
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        return respond(HttpStatus.BAD_REQUEST, errorResponse, ex);
     }
 
     /**
@@ -91,7 +198,22 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDTO> handleGenericException(Exception ex) {
+        log.error("Erro não tratado", ex);
         ErrorDTO errorDTO = new ErrorDTO("INTERNAL_ERROR", "Erro interno no servidor");
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorDTO);
+        return respond(HttpStatus.INTERNAL_SERVER_ERROR, errorDTO, ex);
+    }
+
+    private ResponseEntity<ErrorDTO> respond(HttpStatus status, ErrorDTO error, Exception ex) {
+        return ResponseEntity.status(status).body(count(error, ex));
+    }
+
+    private ErrorDTO count(ErrorDTO error, Exception ex) {
+        Counter.builder("usuarios.errors")
+                .description("Respostas de erro da API por código")
+                .tag("code", error.getCode())
+                .tag("exception", ex.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+        return error;
     }
 }
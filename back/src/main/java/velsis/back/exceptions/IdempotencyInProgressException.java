@@ -0,0 +1,8 @@
+package velsis.back.exceptions;
+
+public class IdempotencyInProgressException extends RuntimeException{
+
+    public IdempotencyInProgressException(String key){
+        super("Requisição com a mesma Idempotency-Key ainda em andamento: " + key);
+    }
+}
@@ -0,0 +1,8 @@
+package velsis.back.exceptions;
+
+public class IdempotencyKeyReusedException extends RuntimeException{
+
+    public IdempotencyKeyReusedException(String key){
+        super("Idempotency-Key já usada em outra requisição: " + key);
+    }
+}
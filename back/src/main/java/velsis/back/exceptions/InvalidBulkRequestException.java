@@ -0,0 +1,8 @@
+package velsis.back.exceptions;
+
+public class InvalidBulkRequestException extends RuntimeException{
+
+    public InvalidBulkRequestException(String message){
+        super(message);
+    }
+}
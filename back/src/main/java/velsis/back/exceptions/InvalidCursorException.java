@@ -0,0 +1,8 @@
+package velsis.back.exceptions;
+
+public class InvalidCursorException extends RuntimeException{
+
+    public InvalidCursorException(String cursor){
+        super("Cursor inválido: " + cursor);
+    }
+}
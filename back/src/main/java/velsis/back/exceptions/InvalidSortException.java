@@ -0,0 +1,8 @@
+package velsis.back.exceptions;
+
+public class InvalidSortException extends RuntimeException{
+
+    public InvalidSortException(String sort){
+        super("Ordenação inválida: " + sort);
+    }
+}
@@ -0,0 +1,15 @@
+package velsis.back.exceptions;
+
+public class OverloadedException extends RuntimeException{
+
+    private final long retryAfterSeconds;
+
+    public OverloadedException(long retryAfterSeconds){
+        super("Servidor sobrecarregado, tente novamente em " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds(){
+        return retryAfterSeconds;
+    }
+}
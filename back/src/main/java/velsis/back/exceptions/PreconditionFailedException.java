@@ -0,0 +1,8 @@
+package velsis.back.exceptions;
+
+public class PreconditionFailedException extends RuntimeException{
+
+    public PreconditionFailedException(){
+        super("Usuário foi alterado por outra requisição");
+    }
+}
@@ -0,0 +1,59 @@
+package velsis.back.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import velsis.back.entities.IdempotencyKey;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Reserva a chave para a execução atual, sem status
+     * Falha com violação da chave primária se outra requisição já reservou a mesma chave
+     */
+    @Transactional
+    @Modifying
+    @Query("insert into idempotency_key (id, fingerprint, expires_at) values (:id, :fingerprint, :expiresAt)")
+    int insert(@Param("id") String id,
+               @Param("fingerprint") String fingerprint,
+               @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update idempotency_key k set k.status = :status where k.id = :id")
+    int complete(@Param("id") String id, @Param("status") int status);
+
+    /**
+     * Libera a chave de uma execução que falhou, para que a próxima tentativa execute de novo
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from idempotency_key k where k.id = :id and k.status is null")
+    int release(@Param("id") String id);
+
+    /**
+     * Reserva de novo uma chave expirada, em um único comando: só uma das requisições concorrentes altera a linha
+     * Não passa pelo contexto de persistência, que pode guardar a versão expirada da chave
+     *
+     * @return 1 se a chave foi reservada para esta execução, 0 se não estava expirada ou outra requisição a reservou antes
+     */
+    @Transactional
+    @Modifying
+    @Query("update idempotency_key k set k.fingerprint = :fingerprint, k.status = null, k.expires_at = :expiresAt " +
+            "where k.id = :id and k.expires_at < :now")
+    int reclaimExpired(@Param("id") String id,
+                       @Param("fingerprint") String fingerprint,
+                       @Param("expiresAt") Instant expiresAt,
+                       @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from idempotency_key k where k.expires_at < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,11 +1,146 @@
 package velsis.back.repositories;
 
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.dtos.UsuarioDocumentDTO;
+import velsis.back.dtos.UsuarioSearchDTO;
+import velsis.back.entities.AddressStatus;
 import velsis.back.entities.Usuario;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioRepositoryCustom {
 
     Boolean existsByDocument(String document);
+
+    boolean existsByDocumentAndIdNot(String document, long id);
+
+    /**
+     * Verifica em uma única consulta quais documentos de um lote já estão cadastrados
+     */
+    @Query("select u.document from usuario u where u.document in :documents")
+    List<String> findExistingDocuments(@Param("documents") Collection<String> documents);
+
+    /**
+     * Projeta todos os usuários direto em UsuarioDTO, lendo apenas as colunas exibidas na listagem
+     */
+    @Query("select new velsis.back.dtos.UsuarioDTO(u.id, u.name, u.birth_date, u.city, u.state) " +
+            "from usuario u order by u.id")
+    List<UsuarioDTO> findAllResumido();
+
+    /**
+     * Busca a próxima página por keyset (id > after), usando o índice da chave primária
+     * em vez de OFFSET, para que o custo não cresça com a posição da página
+     */
+    @Query("select new velsis.back.dtos.UsuarioDTO(u.id, u.name, u.birth_date, u.city, u.state) " +
+            "from usuario u where u.id > :after order by u.id")
+    List<UsuarioDTO> findPageAfter(@Param("after") long after, Limit limit);
+
+    /**
+     * Busca por trecho do nome direto no banco (LIKE '%q%', sem índice)
+     * Usada apenas enquanto o índice de busca em memória ainda está sendo carregado
+     */
+    @Query("select new velsis.back.dtos.UsuarioSearchDTO(u.id, u.name, 0.0) from usuario u " +
+            "where lower(u.name) like lower(concat('%', :query, '%')) order by u.id")
+    List<UsuarioSearchDTO> searchByName(@Param("query") String query, Limit limit);
+
+    /**
+     * Contagens agrupadas para as estatísticas: [state, city, quantidade] e [birth_date, quantidade]
+     * Usadas apenas enquanto os contadores em memória ainda estão sendo carregados
+     */
+    @Query("select u.state, u.city, count(u) from usuario u group by u.state, u.city")
+    List<Object[]> countByLocation();
+
+    @Query("select u.birth_date, count(u) from usuario u group by u.birth_date")
+    List<Object[]> countByBirthDate();
+
+    /**
+     * Id e document dos usuários existentes entre os ids informados, com as linhas bloqueadas (SELECT ... FOR UPDATE)
+     * até o fim da transação, para que o DELETE ou UPDATE em lote seguinte altere exatamente esses usuários
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new velsis.back.dtos.UsuarioDocumentDTO(u.id, u.document) from usuario u where u.id in :ids")
+    List<UsuarioDocumentDTO> findDocumentsForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Busca usuários com endereço aguardando consulta do CEP
+     */
+    @Query("select u from usuario u where u.address_status = :status order by u.id")
+    List<Usuario> findByAddressStatus(@Param("status") AddressStatus status, Limit limit);
+
+    /**
+     * Completa o endereço de um usuário pendente
+     * Só altera a linha se o CEP ainda for o mesmo, para não sobrescrever uma alteração posterior
+     * Incrementa a versão (ETag): quem chama publica o UsuarioChangedEvent quando a linha é alterada
+     *
+     * @return quantidade de linhas alteradas (0 se o usuário mudou de CEP ou foi removido)
+     */
+    @Transactional
+    @Modifying
+    @Query("update usuario u set u.address_line = :addressLine, u.city = :city, u.state = :state, " +
+            "u.address_status = :status, u.version = u.version + 1 where u.id = :id and u.zip = :zip " +
+            "and u.address_status = velsis.back.entities.AddressStatus.PENDING")
+    int completePendingEndereco(@Param("id") long id,
+                                @Param("zip") String zip,
+                                @Param("addressLine") String addressLine,
+                                @Param("city") String city,
+                                @Param("state") String state,
+                                @Param("status") AddressStatus status);
+
+    /**
+     * Atualizações de um único campo em um só comando, sem carregar a entidade
+     * Incrementam a versão e, com expectedVersion informado, só alteram a linha se a versão ainda for a mesma
+     * Devem ser chamadas dentro de uma transação
+     *
+     * @return quantidade de linhas alteradas (0 se o usuário não existe ou a versão mudou)
+     */
+    @Modifying
+    @Query("update usuario u set u.name = :name, u.updated_at = :today, u.version = u.version + 1 " +
+            "where u.id = :id and (:expectedVersion is null or u.version = :expectedVersion)")
+    int updateName(@Param("id") long id,
+                   @Param("expectedVersion") Long expectedVersion,
+                   @Param("name") String name,
+                   @Param("today") LocalDate today);
+
+    @Modifying
+    @Query("update usuario u set u.birth_date = :birthDate, u.updated_at = :today, u.version = u.version + 1 " +
+            "where u.id = :id and (:expectedVersion is null or u.version = :expectedVersion)")
+    int updateBirthDate(@Param("id") long id,
+                        @Param("expectedVersion") Long expectedVersion,
+                        @Param("birthDate") LocalDate birthDate,
+                        @Param("today") LocalDate today);
+
+    @Modifying
+    @Query("update usuario u set u.document = :document, u.updated_at = :today, u.version = u.version + 1 " +
+            "where u.id = :id and (:expectedVersion is null or u.version = :expectedVersion)")
+    int updateDocument(@Param("id") long id,
+                       @Param("expectedVersion") Long expectedVersion,
+                       @Param("document") String document,
+                       @Param("today") LocalDate today);
+
+    @Modifying
+    @Query("update usuario u set u.zip = :zip, u.address_number = :addressNumber, u.address_line = :addressLine, " +
+            "u.city = :city, u.state = :state, u.address_status = :status, u.updated_at = :today, " +
+            "u.version = u.version + 1 " +
+            "where u.id = :id and (:expectedVersion is null or u.version = :expectedVersion)")
+    int updateEndereco(@Param("id") long id,
+                       @Param("expectedVersion") Long expectedVersion,
+                       @Param("zip") String zip,
+                       @Param("addressNumber") Integer addressNumber,
+                       @Param("addressLine") String addressLine,
+                       @Param("city") String city,
+                       @Param("state") String state,
+                       @Param("status") AddressStatus status,
+                       @Param("today") LocalDate today);
 }
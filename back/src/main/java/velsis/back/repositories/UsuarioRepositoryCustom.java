@@ -0,0 +1,61 @@
+package velsis.back.repositories;
+
+import velsis.back.dtos.UsuarioCursor;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.dtos.UsuarioDocumentDTO;
+import velsis.back.dtos.UsuarioFilter;
+import velsis.back.dtos.UsuarioSort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface UsuarioRepositoryCustom {
+
+    /**
+     * Percorre todos os usuários como stream, lendo as linhas do cursor JDBC sob demanda
+     * Deve ser consumido dentro de uma transação e fechado ao final
+     */
+    Stream<UsuarioDTO> streamAllResumido();
+
+    /**
+     * Lê todos os documents em streaming, usado para aquecer o índice de documents na inicialização
+     */
+    Stream<String> streamAllDocuments();
+
+    /**
+     * Atualiza apenas os atributos informados em um único UPDATE, incrementando a versão
+     * Deve ser chamado dentro de uma transação
+     *
+     * @param expectedVersion - versão esperada (If-Match) ou null para atualizar qualquer versão
+     * @param values - nome do atributo da entidade e novo valor
+     * @return quantidade de linhas alteradas (0 se o usuário não existe ou a versão mudou)
+     */
+    int updateFields(long id, Long expectedVersion, Map<String, Object> values);
+
+    /**
+     * Atualiza os mesmos atributos de vários usuários em um único UPDATE ... WHERE id IN (...), incrementando a versão
+     * Deve ser chamado dentro de uma transação
+     *
+     * @return quantidade de linhas alteradas
+     */
+    int updateFields(Collection<Long> ids, Map<String, Object> values);
+
+    /**
+     * Próximo bloco de usuários que atendem aos filtros, em ordem de id a partir de after, com as linhas bloqueadas
+     * (SELECT ... FOR UPDATE) até o fim da transação; usado para percorrer a seleção das operações em lote
+     */
+    List<UsuarioDocumentDTO> findFilteredDocumentsForUpdate(UsuarioFilter filter, long after, int limit);
+
+    /**
+     * Lista os usuários que atendem aos filtros, projetando direto em UsuarioDTO
+     * A paginação é por keyset sobre (campo de ordenação, id), partindo da posição informada em after
+     *
+     * @param after - posição do último usuário da página anterior, ou null para começar do início
+     * @param limit - quantidade máxima de linhas, ou null para todas
+     */
+    List<UsuarioDTO> findFiltered(UsuarioFilter filter, UsuarioSort sort, boolean descending, UsuarioCursor after, Integer limit);
+
+    long countFiltered(UsuarioFilter filter);
+}
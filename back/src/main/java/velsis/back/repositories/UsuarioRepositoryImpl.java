@@ -0,0 +1,218 @@
+package velsis.back.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import velsis.back.dtos.UsuarioCursor;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.dtos.UsuarioDocumentDTO;
+import velsis.back.dtos.UsuarioFilter;
+import velsis.back.dtos.UsuarioSort;
+import velsis.back.entities.Usuario;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Integer.MIN_VALUE ativa o modo streaming do driver MySQL (linha a linha);
+     * outros bancos usam um valor positivo, ex.: 1000
+     */
+    @Value("${usuarios.export.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    @Override
+    public Stream<UsuarioDTO> streamAllResumido() {
+        return entityManager
+                .createQuery("select new velsis.back.dtos.UsuarioDTO(u.id, u.name, u.birth_date, u.city, u.state) " +
+                        "from usuario u order by u.id", UsuarioDTO.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public Stream<String> streamAllDocuments() {
+        return entityManager
+                .createQuery("select u.document from usuario u", String.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public int updateFields(long id, Long expectedVersion, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Usuario> update = cb.createCriteriaUpdate(Usuario.class);
+        Root<Usuario> root = update.from(Usuario.class);
+
+        values.forEach((attribute, value) -> update.<Object, Object>set(root.get(attribute), value));
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+
+        Predicate byId = cb.equal(root.get("id"), id);
+        update.where(expectedVersion == null ? byId : cb.and(byId, cb.equal(version, expectedVersion)));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int updateFields(Collection<Long> ids, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Usuario> update = cb.createCriteriaUpdate(Usuario.class);
+        Root<Usuario> root = update.from(Usuario.class);
+
+        values.forEach((attribute, value) -> update.<Object, Object>set(root.get(attribute), value));
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        update.where(root.get("id").in(ids));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public List<UsuarioDocumentDTO> findFilteredDocumentsForUpdate(UsuarioFilter filter, long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UsuarioDocumentDTO> query = cb.createQuery(UsuarioDocumentDTO.class);
+        Root<Usuario> root = query.from(Usuario.class);
+
+        Path<Long> id = root.get("id");
+        List<Predicate> predicates = filterPredicates(cb, root, filter);
+        predicates.add(cb.greaterThan(id, after));
+        query.select(cb.construct(UsuarioDocumentDTO.class, id, root.get("document")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(id));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<UsuarioDTO> findFiltered(UsuarioFilter filter, UsuarioSort sort, boolean descending, UsuarioCursor after, Integer limit) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<UsuarioDTO> query = cb.createQuery(UsuarioDTO.class);
+        Root<Usuario> root = query.from(Usuario.class);
+
+        query.select(cb.construct(UsuarioDTO.class,
+                root.get("id"), root.get("name"), root.get("birth_date"), root.get("city"), root.get("state")));
+
+        List<Predicate> predicates = filterPredicates(cb, root, filter);
+        if (after != null) {
+            predicates.add(afterCursor(cb, root, descending, after));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        // nulos ficam no início da ordem crescente (e no fim da decrescente), que é o padrão do MySQL,
+        // então o ORDER BY continua coberto pelo índice
+        Path<Long> id = root.get("id");
+        if (sort == UsuarioSort.ID) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            Path<?> field = root.get(sort.attribute());
+            query.orderBy(descending ? cb.desc(field, false) : cb.asc(field, true),
+                    descending ? cb.desc(id) : cb.asc(id));
+        }
+
+        TypedQuery<UsuarioDTO> typedQuery = entityManager.createQuery(query);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public long countFiltered(UsuarioFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Usuario> root = query.from(Usuario.class);
+
+        query.select(cb.count(root)).where(filterPredicates(cb, root, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Cada filtro vira um predicado que pode usar os índices de Usuario:
+     * prefixo de nome (name), estado e cidade (state, city) e intervalos de datas
+     */
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Usuario> root, UsuarioFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (hasText(filter.name())) {
+            predicates.add(cb.like(root.get("name"), escapeLike(filter.name().trim()) + "%", '\\'));
+        }
+        if (hasText(filter.state())) {
+            predicates.add(cb.equal(root.get("state"), filter.state().trim()));
+        }
+        if (hasText(filter.city())) {
+            predicates.add(cb.equal(root.get("city"), filter.city().trim()));
+        }
+        addRange(cb, predicates, root.get("birth_date"), filter.birth_from(), filter.birth_to());
+        addRange(cb, predicates, root.get("created_at"), filter.created_from(), filter.created_to());
+        addRange(cb, predicates, root.get("updated_at"), filter.updated_from(), filter.updated_to());
+
+        return predicates;
+    }
+
+    private static void addRange(CriteriaBuilder cb, List<Predicate> predicates, Path<LocalDate> path,
+                                 LocalDate from, LocalDate to) {
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThanOrEqualTo(path, to));
+        }
+    }
+
+    /**
+     * Posiciona a consulta depois do usuário do cursor na ordem (campo, id)
+     * O valor do campo vem no próprio cursor, sem reler o usuário, que pode ter sido removido ou alterado
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate afterCursor(CriteriaBuilder cb, Root<Usuario> root, boolean descending, UsuarioCursor cursor) {
+        Path<Long> id = root.get("id");
+        long after = cursor.id();
+        if (cursor.sort() == UsuarioSort.ID) {
+            return descending ? cb.lessThan(id, after) : cb.greaterThan(id, after);
+        }
+
+        Comparable value = cursor.value();
+        Path<Comparable> field = root.get(cursor.sort().attribute());
+        if (!descending) {
+            return value == null
+                    ? cb.or(cb.and(cb.isNull(field), cb.greaterThan(id, after)), cb.isNotNull(field))
+                    : cb.or(cb.greaterThan(field, value), cb.and(cb.equal(field, value), cb.greaterThan(id, after)));
+        }
+        return value == null
+                ? cb.and(cb.isNull(field), cb.lessThan(id, after))
+                : cb.or(cb.lessThan(field, value), cb.and(cb.equal(field, value), cb.lessThan(id, after)), cb.isNull(field));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
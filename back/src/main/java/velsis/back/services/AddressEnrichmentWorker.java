@@ -0,0 +1,160 @@
+package velsis.back.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import velsis.back.api.CepResolverChain;
+import velsis.back.api.Endereco;
+import velsis.back.entities.AddressStatus;
+import velsis.back.entities.Usuario;
+import velsis.back.events.UsuarioChangedEvent;
+import velsis.back.repositories.UsuarioRepository;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completa em segundo plano os endereços salvos como PENDING no modo assíncrono
+ * As tarefas são enviadas após o commit; as que falharem ou não couberem na fila
+ * são reenviadas periodicamente a partir do banco.
+ */
+@Slf4j
+@Component
+public class AddressEnrichmentWorker {
+
+    private static final int RETRY_BATCH_SIZE = 500;
+
+    private final UsuarioRepository usuarioRepository;
+    private final CepResolverChain cepResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean asyncEnrichment;
+    private final ExecutorService executor;
+    private final Set<Task> inFlight = ConcurrentHashMap.newKeySet();
+
+    public AddressEnrichmentWorker(UsuarioRepository usuarioRepository,
+                                   CepResolverChain cepResolver,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${usuarios.address.async-enrichment:false}") boolean asyncEnrichment,
+                                   @Value("${usuarios.address.enrichment-threads:4}") int threads,
+                                   @Value("${usuarios.address.enrichment-queue:10000}") int queueCapacity,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.usuarioRepository = usuarioRepository;
+        this.cepResolver = cepResolver;
+        this.eventPublisher = eventPublisher;
+        this.asyncEnrichment = asyncEnrichment;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                virtualThreads
+                        ? Thread.ofVirtual().name("address-enrichment-", 0).factory()
+                        : Thread.ofPlatform().name("address-enrichment-", 0).factory(),
+                (task, pool) -> inFlight.remove(((Enrichment) task).task));
+    }
+
+    /**
+     * Agenda a consulta do CEP para depois do commit da transação atual
+     */
+    public void enqueue(long id, String zip) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(id, zip);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(id, zip);
+            }
+        });
+    }
+
+    /**
+     * Reenvia os endereços que continuam pendentes (falha no ViaCEP, fila cheia ou reinício da aplicação)
+     * Os que ainda estão na fila ou em andamento são ignorados, para não encher a fila de repetições
+     */
+    @Scheduled(fixedDelayString = "${usuarios.address.retry-interval:60s}")
+    public void retryPending() {
+        if (!asyncEnrichment) {
+            return;
+        }
+
+        for (Usuario usuario : usuarioRepository.findByAddressStatus(AddressStatus.PENDING, Limit.of(RETRY_BATCH_SIZE))) {
+            submit(usuario.getId(), usuario.getZip());
+        }
+    }
+
+    /**
+     * Envia a consulta ao executor, a menos que a mesma (usuário e CEP) já esteja na fila ou em andamento
+     * Se a fila estiver cheia a tarefa é descartada e fica para o retryPending
+     */
+    private void submit(long id, String zip) {
+        Task task = new Task(id, zip);
+        if (inFlight.add(task)) {
+            executor.execute(new Enrichment(task));
+        }
+    }
+
+    private void enrich(long id, String zip) {
+        try {
+            Endereco endereco = cepResolver.resolve(zip);
+
+            if (endereco == null || !endereco.isFound()) {
+                int updated = usuarioRepository.completePendingEndereco(id, zip, null, null, null, AddressStatus.INVALID);
+                if (updated > 0) {
+                    eventPublisher.publishEvent(UsuarioChangedEvent.addressChanged(id, null, null));
+                }
+                return;
+            }
+
+            int updated = usuarioRepository.completePendingEndereco(id, zip,
+                    endereco.logradouro(), endereco.localidade(), endereco.uf(), AddressStatus.RESOLVED);
+            if (updated > 0) {
+                eventPublisher.publishEvent(UsuarioChangedEvent.addressChanged(id, endereco.localidade(), endereco.uf()));
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao completar o endereço do usuário {} (CEP {}), nova tentativa mais tarde", id, zip);
+        }
+    }
+
+    /**
+     * Consultas na fila ou em andamento
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private record Task(long id, String zip) {
+    }
+
+    private final class Enrichment implements Runnable {
+
+        private final Task task;
+
+        private Enrichment(Task task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                enrich(task.id(), task.zip());
+            } finally {
+                inFlight.remove(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package velsis.back.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import velsis.back.configurations.ReplicaRoutingDataSource;
+import velsis.back.events.UsuarioChangedEvent;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.utils.LongHashSet;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Conjunto em memória com os documents (cpf/id) cadastrados, consultado antes do existsByDocument
+ * Uma resposta negativa dispensa a ida ao banco; uma positiva ainda é confirmada pelo banco,
+ * então entradas antigas (document alterado ou removido) custam apenas a consulta que já existia.
+ * Enquanto o aquecimento não termina, todo document é tratado como possivelmente existente.
+ */
+@Slf4j
+@Component
+public class DocumentIndex {
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final LongHashSet documents;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    public DocumentIndex(UsuarioRepository usuarioRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${usuarios.document-index.enabled:true}") boolean enabled,
+                         @Value("${usuarios.document-index.expected-size:100000}") int expectedSize) {
+        this.usuarioRepository = usuarioRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.documents = new LongHashSet(enabled ? expectedSize : 0);
+    }
+
+    /**
+     * @return false apenas quando é certo que o document não está cadastrado
+     */
+    public boolean mightExist(String document) {
+        long key = key(document);
+        if (!ready || key < 0) {
+            return true;
+        }
+
+        lock.readLock().lock();
+        try {
+            return documents.contains(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String document) {
+        long key = key(document);
+        if (!enabled || key < 0) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            documents.add(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um document que o banco confirmou não existir mais
+     */
+    public void remove(String document) {
+        long key = key(document);
+        if (key < 0) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            documents.remove(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioChanged(UsuarioChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> {
+                if (event.changed(UsuarioChangedEvent.Field.DOCUMENT)) {
+                    add(event.document());
+                }
+            }
+            case DELETED -> remove(event.document());
+        }
+    }
+
+    /**
+     * Carrega os documents em uma thread separada para não atrasar a inicialização
+     * Escritas concorrentes entram pelo listener; adicionar o mesmo document duas vezes não tem efeito.
+     * A leitura vai para o primário: um document gravado antes da carga e ainda não replicado ficaria fora do índice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread.ofPlatform().name("document-index-warmup").daemon().start(() -> {
+            try {
+                long start = System.nanoTime();
+                ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> {
+                    try (Stream<String> stream = usuarioRepository.streamAllDocuments()) {
+                        stream.forEach(this::add);
+                    }
+                    return null;
+                }));
+                ready = true;
+                log.info("Índice de documents carregado com {} entradas em {} ms",
+                        size(), (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                log.warn("Falha ao carregar o índice de documents, consultas continuam indo ao banco", e);
+            }
+        });
+    }
+
+    /**
+     * Converte o document (11 dígitos) para long; valores fora desse formato ficam fora do índice
+     */
+    private static long key(String document) {
+        if (document == null || document.isEmpty() || document.length() > 18) {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = 0; i < document.length(); i++) {
+            char c = document.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,324 @@
+package velsis.back.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import velsis.back.configurations.ReplicaRoutingDataSource;
+import velsis.back.entities.IdempotencyKey;
+import velsis.back.exceptions.IdempotencyInProgressException;
+import velsis.back.exceptions.IdempotencyKeyReusedException;
+import velsis.back.repositories.IdempotencyKeyRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key nas escritas: a primeira requisição com a chave executa e as repetições recebem o mesmo status,
+ * com o cabeçalho Idempotent-Replayed, sem consultar o banco nem o ViaCEP de novo
+ * Repetições que chegam durante a primeira execução esperam por ela (até usuarios.idempotency.wait-timeout).
+ * Só o sucesso é guardado: se a primeira execução falha, a chave é liberada e a próxima tentativa executa de novo.
+ * A mesma chave com outra operação ou outro corpo é recusada.
+ *
+ * As chaves ficam em memória (usuarios.idempotency.max-keys, expiram após usuarios.idempotency.ttl) e, com
+ * usuarios.idempotency.persistent=true, também na tabela idempotency_key, para valer entre as instâncias.
+ * As respostas das escritas não têm corpo, então basta guardar o status.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final long POLL_MILLIS = 50;
+    private static final int CLAIMED = 0;
+    private static final int IN_PROGRESS = -1;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Execution> executions;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final boolean persistent;
+    private final ExecutorService pollExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor pollDelay = CompletableFuture.delayedExecutor(POLL_MILLIS, TimeUnit.MILLISECONDS, pollExecutor);
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${usuarios.idempotency.max-keys:100000}") long maxKeys,
+                              @Value("${usuarios.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${usuarios.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${usuarios.idempotency.persistent:false}") boolean persistent) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.persistent = persistent;
+    }
+
+    /**
+     * Executa a escrita uma única vez por chave; sem chave, apenas executa
+     *
+     * @param key - valor do cabeçalho Idempotency-Key (opcional)
+     * @param operation - método e caminho, ex.: "PATCH /usuarios/name"
+     * @param action - escrita a executar
+     * @param request - corpo e parâmetros que identificam a requisição junto com a operação
+     * @throws IdempotencyKeyReusedException se a chave já foi usada com outra operação ou outro corpo
+     * @throws IdempotencyInProgressException se a primeira execução não terminou dentro do tempo de espera
+     */
+    public ResponseEntity<Void> execute(String key, String operation, Supplier<ResponseEntity<Void>> action,
+                                        Object... request) {
+        try {
+            return executeAsync(key, operation, () -> CompletableFuture.completedFuture(action.get()), request).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Versão de execute para as escritas assíncronas; as repetições esperam sem prender a thread
+     */
+    public CompletableFuture<ResponseEntity<Void>> executeAsync(String key, String operation,
+                                                                Supplier<CompletableFuture<ResponseEntity<Void>>> action,
+                                                                Object... request) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        String id = sha256(key.getBytes(StandardCharsets.UTF_8));
+        String fingerprint = fingerprint(operation, request);
+        Execution execution = new Execution(fingerprint, new CompletableFuture<>());
+        Execution previous = executions.asMap().putIfAbsent(id, execution);
+        if (previous != null) {
+            return replay(key, previous, fingerprint);
+        }
+
+        if (!persistent) {
+            return run(id, execution, action);
+        }
+
+        return claim(key, id, fingerprint, System.nanoTime() + waitTimeout.toNanos())
+                .whenComplete((stored, error) -> {
+                    if (error != null) {
+                        forget(id, execution, unwrap(error));
+                    }
+                })
+                .thenCompose(stored -> {
+                    if (stored != CLAIMED) {
+                        execution.status().complete(HttpStatusCode.valueOf(stored));
+                        return CompletableFuture.completedFuture(replayed(HttpStatusCode.valueOf(stored)));
+                    }
+                    return run(id, execution, action);
+                });
+    }
+
+    /**
+     * Remove da tabela as chaves expiradas
+     */
+    @Scheduled(fixedDelayString = "${usuarios.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+
+        int removed = idempotencyKeyRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            log.debug("{} chaves de idempotência expiradas removidas", removed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pollExecutor.shutdownNow();
+    }
+
+    /**
+     * Executa a escrita da chave reservada e registra o resultado
+     */
+    private CompletableFuture<ResponseEntity<Void>> run(String id, Execution execution,
+                                                        Supplier<CompletableFuture<ResponseEntity<Void>>> action) {
+        CompletableFuture<ResponseEntity<Void>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            failed(id, execution, e);
+            throw e;
+        }
+
+        return response.whenComplete((result, error) -> {
+            if (error != null) {
+                failed(id, execution, error);
+            } else {
+                succeeded(id, execution, result.getStatusCode());
+            }
+        });
+    }
+
+    private CompletableFuture<ResponseEntity<Void>> replay(String key, Execution previous, String fingerprint) {
+        if (!previous.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+
+        return previous.status().copy()
+                .orTimeout(waitTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((status, error) -> {
+                    if (error == null) {
+                        return replayed(status);
+                    }
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof TimeoutException) {
+                        throw new IdempotencyInProgressException(key);
+                    }
+                    throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+                });
+    }
+
+    /**
+     * Reserva a chave na tabela ou, se outra instância já a reservou, espera o status dela
+     * A espera não prende a thread: cada nova consulta é agendada POLL_MILLIS depois da anterior, até o deadline
+     *
+     * @return status da execução anterior, ou CLAIMED se a chave foi reservada para esta execução
+     */
+    private CompletableFuture<Integer> claim(String key, String id, String fingerprint, long deadline) {
+        int result;
+        try {
+            result = tryClaim(key, id, fingerprint);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (result != IN_PROGRESS) {
+            return CompletableFuture.completedFuture(result);
+        }
+        if (System.nanoTime() > deadline) {
+            return CompletableFuture.failedFuture(new IdempotencyInProgressException(key));
+        }
+        return CompletableFuture.supplyAsync(() -> claim(key, id, fingerprint, deadline), pollDelay)
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Uma tentativa de reserva, sem esperar
+     * A chave expirada é reservada de novo com um update condicional; se outra requisição ganhar as corridas
+     * de insert e update MAX_CLAIM_ATTEMPTS vezes, a tentativa conta como em andamento e claim consulta de novo depois
+     *
+     * @return status da execução anterior, CLAIMED se a chave foi reservada ou IN_PROGRESS se outra instância
+     * ainda está executando
+     */
+    private int tryClaim(String key, String id, String fingerprint) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            Instant now = Instant.now();
+            IdempotencyKey stored = ReplicaRoutingDataSource.onPrimary(() -> idempotencyKeyRepository.findById(id))
+                    .orElse(null);
+
+            if (stored == null) {
+                try {
+                    idempotencyKeyRepository.insert(id, fingerprint, now.plus(ttl));
+                    return CLAIMED;
+                } catch (DataIntegrityViolationException e) {
+                    continue;
+                }
+            }
+            if (stored.getExpires_at().isBefore(now)) {
+                if (idempotencyKeyRepository.reclaimExpired(id, fingerprint, now.plus(ttl), now) == 1) {
+                    return CLAIMED;
+                }
+                continue;
+            }
+            if (!stored.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return stored.getStatus() != null ? stored.getStatus() : IN_PROGRESS;
+        }
+        return IN_PROGRESS;
+    }
+
+    private void succeeded(String id, Execution execution, HttpStatusCode status) {
+        execution.status().complete(status);
+        if (persistent) {
+            try {
+                idempotencyKeyRepository.complete(id, status.value());
+            } catch (RuntimeException e) {
+                log.warn("Falha ao gravar o resultado da chave de idempotência {}", id, e);
+            }
+        }
+    }
+
+    private void failed(String id, Execution execution, Throwable error) {
+        forget(id, execution, error);
+        if (persistent) {
+            try {
+                idempotencyKeyRepository.release(id);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao liberar a chave de idempotência {}", id, e);
+            }
+        }
+    }
+
+    private void forget(String id, Execution execution, Throwable error) {
+        executions.asMap().remove(id, execution);
+        execution.status().completeExceptionally(error);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static ResponseEntity<Void> replayed(HttpStatusCode status) {
+        return ResponseEntity.status(status).header(REPLAYED, "true").build();
+    }
+
+    private String fingerprint(String operation, Object[] request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            byte[] operationBytes = (operation + '\n').getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = new byte[operationBytes.length + body.length];
+            System.arraycopy(operationBytes, 0, bytes, 0, operationBytes.length);
+            System.arraycopy(body, 0, bytes, operationBytes.length, body.length);
+            return sha256(bytes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Requisição não serializável para a chave de idempotência", e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Execução de uma chave nesta instância; status é concluído com o da resposta ou com a falha
+     */
+    private record Execution(String fingerprint, CompletableFuture<HttpStatusCode> status) {
+    }
+}
@@ -0,0 +1,535 @@
+package velsis.back.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import velsis.back.configurations.ReplicaRoutingDataSource;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.dtos.UsuarioSearchDTO;
+import velsis.back.events.UsuarioChangedEvent;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.utils.LongHashSet;
+import velsis.back.utils.LongIntHashMap;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice de trigramas sobre os nomes dos usuários para a busca "contém" do typeahead
+ * Os nomes são normalizados (sem acentos, minúsculos, apenas [a-z0-9] e espaço), então cada trigrama
+ * cabe em um int menor que 37³ e as listas de postagem ficam em um array indexado diretamente.
+ *
+ * As listas são separadas pela quantidade de trigramas do nome (faixa), que define a similaridade:
+ * a busca percorre as faixas dos nomes mais curtos para os mais longos e para assim que as faixas
+ * seguintes não podem mais superar os resultados já encontrados.
+ *
+ * Cada nome ocupa um slot; as listas guardam slots em ordem crescente porque só recebem inserções no fim.
+ * Alterar ou remover um nome marca o slot antigo como morto, e os mortos são descartados
+ * quando passam da metade dos slots.
+ */
+@Slf4j
+@Component
+public class NameSearchIndex {
+
+    private static final int ALPHABET = 37;
+    private static final int TRIGRAMS = ALPHABET * ALPHABET * ALPHABET;
+    private static final int TIERS = 64;
+    private static final long DEAD = -1L;
+    private static final int MIN_COMPACTION = 1024;
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int[][][] postings = new int[TIERS][][];
+    private final int[][] postingSizes = new int[TIERS][];
+    private final LongIntHashMap slotById;
+
+    private long[] ids;
+    private String[] names;
+    private int[] trigramCounts;
+    private int slots;
+    private int dead;
+
+    private LongHashSet removedDuringWarmUp = new LongHashSet(16);
+    private volatile boolean ready;
+
+    public NameSearchIndex(UsuarioRepository usuarioRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${usuarios.search.enabled:true}") boolean enabled,
+                           @Value("${usuarios.search.expected-size:100000}") int expectedSize) {
+        this.usuarioRepository = usuarioRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+
+        int capacity = enabled ? Math.max(expectedSize, 16) : 16;
+        this.slotById = new LongIntHashMap(capacity, -1);
+        this.ids = new long[capacity];
+        this.names = new String[capacity];
+        this.trigramCounts = new int[capacity];
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os nomes que contêm todos os trigramas da consulta, ordenados pela similaridade
+     * (trigramas da consulta / trigramas do nome) e, no empate, pelo id
+     * Palavras com menos de 3 letras na consulta casam com o início de uma palavra do nome.
+     *
+     * @param query - texto digitado
+     * @param limit - quantidade máxima de resultados
+     */
+    public List<UsuarioSearchDTO> search(String query, int limit) {
+        int[] queryTrigrams = queryTrigrams(normalize(query));
+        if (queryTrigrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return collect(queryTrigrams, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inclui ou substitui o nome do usuário
+     */
+    public void put(long id, String name) {
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            kill(slotById.remove(id));
+            append(id, name);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            kill(slotById.remove(id));
+            if (!ready) {
+                removedDuringWarmUp.add(id);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioChanged(UsuarioChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> put(event.id(), event.name());
+            case UPDATED -> {
+                if (event.changed(UsuarioChangedEvent.Field.NAME)) {
+                    put(event.id(), event.name());
+                }
+            }
+            case DELETED -> remove(event.id());
+        }
+    }
+
+    /**
+     * Monta o índice com uma leitura em streaming da tabela, em uma thread separada
+     * Alterações que chegam pelo listener durante a carga têm prioridade sobre as linhas lidas.
+     * A leitura vai para o primário: um usuário gravado antes da carga e ainda não replicado ficaria fora da busca.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread.ofPlatform().name("name-search-warmup").daemon().start(() -> {
+            try {
+                long start = System.nanoTime();
+                ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> {
+                    try (Stream<UsuarioDTO> stream = usuarioRepository.streamAllResumido()) {
+                        stream.forEach(usuario -> putIfAbsent(usuario.id(), usuario.name()));
+                    }
+                    return null;
+                }));
+
+                lock.writeLock().lock();
+                try {
+                    ready = true;
+                    removedDuringWarmUp = new LongHashSet(16);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.info("Índice de busca por nome carregado com {} nomes em {} ms",
+                        size(), (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                log.warn("Falha ao carregar o índice de busca por nome, a busca continua usando o banco", e);
+            }
+        });
+    }
+
+    private void putIfAbsent(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (!slotById.containsKey(id) && !removedDuringWarmUp.contains(id)) {
+                append(id, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<UsuarioSearchDTO> collect(int[] queryTrigrams, int limit) {
+        int[] order = queryTrigrams.clone();
+        int[] positions = new int[order.length];
+        int[] bestSlots = new int[limit];
+        double[] bestScores = new double[limit];
+        int found = 0;
+
+        for (int tier = 1; tier < TIERS; tier++) {
+            if (found == limit && Math.min((double) queryTrigrams.length / tier, 1.0) < bestScores[limit - 1]) {
+                break;
+            }
+            int[][] lists = postings[tier];
+            int[] sizes = postingSizes[tier];
+            if (lists == null || !sortBySize(order, sizes)) {
+                continue;
+            }
+
+            // a lista mais curta define os candidatos; as demais são percorridas em avanço exponencial
+            Arrays.fill(positions, 0);
+            int[] candidates = lists[order[0]];
+            int candidateCount = sizes[order[0]];
+            candidates:
+            for (int c = 0; c < candidateCount; c++) {
+                int slot = candidates[c];
+                if (ids[slot] == DEAD) {
+                    continue;
+                }
+
+                for (int j = 1; j < order.length; j++) {
+                    int position = advance(lists[order[j]], sizes[order[j]], positions[j], slot);
+                    positions[j] = position;
+                    if (position == sizes[order[j]]) {
+                        break candidates;
+                    }
+                    if (lists[order[j]][position] != slot) {
+                        continue candidates;
+                    }
+                }
+
+                double score = (double) queryTrigrams.length / trigramCounts[slot];
+                found = offer(bestSlots, bestScores, found, slot, Math.min(score, 1.0));
+            }
+        }
+
+        List<UsuarioSearchDTO> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(new UsuarioSearchDTO(ids[bestSlots[i]], names[bestSlots[i]], bestScores[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Ordena os trigramas pelo tamanho da lista na faixa
+     *
+     * @return false se algum trigrama não tem nenhum nome na faixa
+     */
+    private static boolean sortBySize(int[] order, int[] sizes) {
+        for (int i = 1; i < order.length; i++) {
+            int trigram = order[i];
+            int j = i - 1;
+            while (j >= 0 && sizes[order[j]] > sizes[trigram]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = trigram;
+        }
+        return sizes[order[0]] > 0;
+    }
+
+    /**
+     * Mantém os melhores resultados em ordem (maior score, depois menor id)
+     */
+    private int offer(int[] bestSlots, double[] bestScores, int found, int slot, double score) {
+        int limit = bestSlots.length;
+        int position = found;
+        while (position > 0 && better(score, ids[slot], bestScores[position - 1], ids[bestSlots[position - 1]])) {
+            position--;
+        }
+        if (position >= limit) {
+            return found;
+        }
+
+        int end = Math.min(found, limit - 1);
+        System.arraycopy(bestSlots, position, bestSlots, position + 1, end - position);
+        System.arraycopy(bestScores, position, bestScores, position + 1, end - position);
+        bestSlots[position] = slot;
+        bestScores[position] = score;
+        return Math.min(found + 1, limit);
+    }
+
+    private static boolean better(double score, long id, double otherScore, long otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    /**
+     * Primeira posição a partir de from com valor >= target (busca exponencial seguida de binária)
+     */
+    private static int advance(int[] list, int size, int from, int target) {
+        if (from >= size || list[from] >= target) {
+            return from;
+        }
+
+        int step = 1;
+        int low = from;
+        int high = from + 1;
+        while (high < size && list[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, size);
+
+        int position = Arrays.binarySearch(list, low + 1, high, target);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private void append(long id, String name) {
+        if (name == null) {
+            return;
+        }
+        int[] trigrams = documentTrigrams(normalize(name));
+        if (trigrams.length == 0) {
+            return;
+        }
+
+        if (slots == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+        }
+
+        int slot = slots++;
+        ids[slot] = id;
+        names[slot] = name;
+        trigramCounts[slot] = trigrams.length;
+        slotById.put(id, slot);
+
+        int tier = Math.min(trigrams.length, TIERS - 1);
+        if (postings[tier] == null) {
+            postings[tier] = new int[TRIGRAMS][];
+            postingSizes[tier] = new int[TRIGRAMS];
+        }
+        int[][] lists = postings[tier];
+        int[] sizes = postingSizes[tier];
+        for (int trigram : trigrams) {
+            int[] list = lists[trigram];
+            int size = sizes[trigram];
+            if (list == null) {
+                list = new int[4];
+                lists[trigram] = list;
+            } else if (size == list.length) {
+                list = Arrays.copyOf(list, size + (size >> 1) + 1);
+                lists[trigram] = list;
+            }
+            list[size] = slot;
+            sizes[trigram] = size + 1;
+        }
+    }
+
+    private void kill(int slot) {
+        if (slot < 0) {
+            return;
+        }
+        ids[slot] = DEAD;
+        names[slot] = null;
+        dead++;
+    }
+
+    /**
+     * Descarta os slots mortos renumerando os vivos na mesma ordem, o que mantém as listas ordenadas
+     */
+    private void compactIfNeeded() {
+        if (dead < MIN_COMPACTION || dead * 2 < slots) {
+            return;
+        }
+
+        int[] remap = new int[slots];
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (ids[slot] == DEAD) {
+                remap[slot] = -1;
+                continue;
+            }
+            remap[slot] = live;
+            ids[live] = ids[slot];
+            names[live] = names[slot];
+            trigramCounts[live] = trigramCounts[slot];
+            slotById.put(ids[live], live);
+            live++;
+        }
+        Arrays.fill(names, live, slots, null);
+
+        for (int tier = 0; tier < TIERS; tier++) {
+            int[][] lists = postings[tier];
+            if (lists == null) {
+                continue;
+            }
+            int[] sizes = postingSizes[tier];
+            for (int trigram = 0; trigram < TRIGRAMS; trigram++) {
+                int[] list = lists[trigram];
+                if (list == null) {
+                    continue;
+                }
+                int size = 0;
+                for (int i = 0; i < sizes[trigram]; i++) {
+                    int slot = remap[list[i]];
+                    if (slot >= 0) {
+                        list[size++] = slot;
+                    }
+                }
+                sizes[trigram] = size;
+            }
+        }
+
+        slots = live;
+        dead = 0;
+    }
+
+    /**
+     * Trigramas de cada palavra com o preenchimento do pg_trgm ("  palavra "), sem repetição
+     */
+    static int[] documentTrigrams(String normalized) {
+        if (normalized.isEmpty()) {
+            return new int[0];
+        }
+
+        String[] words = normalized.split(" ");
+        int[] trigrams = new int[normalized.length() + words.length * 3];
+        int count = 0;
+        for (String word : words) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams[count++] = trigram(padded, i);
+            }
+        }
+        return distinct(trigrams, count);
+    }
+
+    /**
+     * Trigramas internos das palavras da consulta; palavras curtas usam o trigrama de início de palavra
+     */
+    static int[] queryTrigrams(String normalized) {
+        if (normalized.isEmpty()) {
+            return new int[0];
+        }
+
+        String[] words = normalized.split(" ");
+        int[] trigrams = new int[normalized.length() + words.length];
+        int count = 0;
+        for (String word : words) {
+            if (word.length() >= 3) {
+                for (int i = 0; i + 3 <= word.length(); i++) {
+                    trigrams[count++] = trigram(word, i);
+                }
+            } else {
+                String padded = word.length() == 2 ? " " + word : "  " + word;
+                trigrams[count++] = trigram(padded, 0);
+            }
+        }
+        return distinct(trigrams, count);
+    }
+
+    /**
+     * Remove acentos, passa para minúsculas e troca qualquer outro caractere por um único espaço
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            c = Character.toLowerCase(c);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                normalized.append(c);
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    private static int trigram(String value, int start) {
+        return (code(value.charAt(start)) * ALPHABET + code(value.charAt(start + 1))) * ALPHABET
+                + code(value.charAt(start + 2));
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 0;
+    }
+
+    private static int[] distinct(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, unique);
+    }
+}
@@ -0,0 +1,131 @@
+package velsis.back.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import velsis.back.dtos.FileFormat;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.repositories.UsuarioRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class UsuarioExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final UsuarioRepository usuarioRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    public UsuarioExportService(UsuarioRepository usuarioRepository, ObjectMapper objectMapper) {
+        this.usuarioRepository = usuarioRepository;
+        this.objectMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    /**
+     * Exporta todos os usuários escrevendo cada linha assim que é lida do cursor,
+     * sem montar a lista em memória
+     *
+     * @param format - formato de saída (NDJSON, CSV, CBOR ou Smile)
+     * @param out - stream da resposta HTTP
+     */
+    @Transactional(readOnly = true)
+    public void exportUsuarios(FileFormat format, OutputStream out) throws IOException {
+        try (Stream<UsuarioDTO> usuarios = usuarioRepository.streamAllResumido()) {
+            switch (format) {
+                case NDJSON -> writeValues(objectMapper, usuarios.iterator(), out, true);
+                case CSV -> writeCsv(usuarios.iterator(), out);
+                case CBOR -> writeValues(cborMapper, usuarios.iterator(), out, false);
+                case SMILE -> writeValues(smileMapper, usuarios.iterator(), out, false);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Escreve um valor por usuário em sequência: uma linha por usuário no NDJSON,
+     * itens CBOR ou Smile concatenados nos formatos binários
+     */
+    private void writeValues(ObjectMapper mapper, Iterator<UsuarioDTO> usuarios, OutputStream out, boolean lines)
+            throws IOException {
+        ObjectWriter writer = mapper
+                .writerFor(UsuarioDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (lines) {
+                generator.setRootValueSeparator(null);
+            }
+
+            long count = 0;
+            while (usuarios.hasNext()) {
+                writer.writeValue(generator, usuarios.next());
+                if (lines) {
+                    generator.writeRaw('\n');
+                }
+
+                if (++count % FLUSH_EVERY == 1) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<UsuarioDTO> usuarios, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,name,birth_date,city,state\n");
+        writer.flush();
+
+        long count = 0;
+        while (usuarios.hasNext()) {
+            UsuarioDTO usuario = usuarios.next();
+            writer.write(String.valueOf(usuario.id()));
+            writer.write(',');
+            writeCsvField(writer, usuario.name());
+            writer.write(',');
+            writeCsvField(writer, usuario.birth_date() == null ? null : usuario.birth_date().toString());
+            writer.write(',');
+            writeCsvField(writer, usuario.city());
+            writer.write(',');
+            writeCsvField(writer, usuario.state());
+            writer.write('\n');
+
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,58 @@
+package velsis.back.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import velsis.back.dtos.UsuarioForUpdateDTO;
+import velsis.back.events.UsuarioChangedEvent;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache read-through dos dados de edição (GET /usuarios/{id}), limitado por tamanho e por tempo
+ * A entrada é descartada após o commit de qualquer escrita no usuário; uma carga em andamento
+ * termina antes do descarte, então uma leitura concluída depois do commit nunca devolve o valor antigo.
+ * Usuários inexistentes não ficam em cache. Escritas feitas por outra instância só aparecem após o TTL.
+ */
+@Component
+public class UsuarioForUpdateCache {
+
+    private final Cache<Long, UsuarioForUpdateDTO> cache;
+
+    public UsuarioForUpdateCache(@Value("${usuarios.edit-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${usuarios.edit-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retorna o usuário em cache ou carrega com o loader (null quando o usuário não existe)
+     */
+    public UsuarioForUpdateDTO get(long id, Function<Long, UsuarioForUpdateDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioChanged(UsuarioChangedEvent event) {
+        invalidate(event.id());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
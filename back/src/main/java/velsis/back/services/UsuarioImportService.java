@@ -0,0 +1,440 @@
+package velsis.back.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import velsis.back.api.CepResolverChain;
+import velsis.back.api.Endereco;
+import velsis.back.dtos.BatchImportResultDTO;
+import velsis.back.dtos.BatchRowResultDTO;
+import velsis.back.dtos.BatchRowStatus;
+import velsis.back.dtos.CreateUsuarioDTO;
+import velsis.back.dtos.FileFormat;
+import velsis.back.entities.AddressStatus;
+import velsis.back.events.UsuarioChangedEvent;
+import velsis.back.exceptions.CepServiceException;
+import velsis.back.exceptions.FileFormatException;
+import velsis.back.repositories.UsuarioRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Importação de usuários em lote a partir de CSV ou NDJSON
+ * O corpo é lido linha a linha e processado em blocos: unicidade do documento verificada
+ * em uma consulta por bloco, cada CEP distinto consultado uma única vez e inserts em lote via JDBC.
+ */
+@Service
+public class UsuarioImportService {
+
+    private static final String INSERT_SQL = "insert into usuario (name, birth_date, document, address_line, " +
+            "address_number, city, state, zip, address_status, created_at, updated_at, version) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "birth_date", "address_number", "document", "zip");
+
+    private final UsuarioRepository usuarioRepository;
+    private final CepResolverChain cepResolver;
+    private final DocumentIndex documentIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader dtoReader;
+    private final int chunkSize;
+    private final ExecutorService cepExecutor;
+
+    public UsuarioImportService(UsuarioRepository usuarioRepository,
+                                CepResolverChain cepResolver,
+                                DocumentIndex documentIndex,
+                                ApplicationEventPublisher eventPublisher,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                @Value("${usuarios.import.chunk-size:500}") int chunkSize,
+                                @Value("${usuarios.import.cep-parallelism:8}") int cepParallelism) {
+        this.usuarioRepository = usuarioRepository;
+        this.cepResolver = cepResolver;
+        this.documentIndex = documentIndex;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.dtoReader = objectMapper.readerFor(CreateUsuarioDTO.class);
+        this.chunkSize = chunkSize;
+        this.cepExecutor = Executors.newFixedThreadPool(cepParallelism,
+                Thread.ofPlatform().name("import-cep-", 0).factory());
+    }
+
+    /**
+     * Importa os usuários do corpo da requisição
+     *
+     * @param format - formato do corpo (CSV com cabeçalho ou NDJSON)
+     * @param in - corpo da requisição, lido sob demanda
+     * @return Relatório com o resultado de cada linha
+     * @throws FileFormatException se o formato for binário (somente exportação) ou o cabeçalho do CSV
+     *                             não tiver as colunas esperadas
+     */
+    public BatchImportResultDTO importUsuarios(FileFormat format, InputStream in) throws IOException {
+        if (format.binary()) {
+            throw new FileFormatException(format.contentType());
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        int lineNumber = 0;
+        LineParser parser;
+        if (format == FileFormat.CSV) {
+            parser = csvParser(reader.readLine());
+            lineNumber++;
+        } else {
+            parser = this::parseNdjson;
+        }
+
+        List<BatchRowResultDTO> results = new ArrayList<>();
+        Set<String> seenDocuments = new HashSet<>();
+        Map<String, CepLookup> ceps = new ConcurrentHashMap<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            chunk.add(parser.parse(lineNumber, line));
+
+            if (chunk.size() == chunkSize) {
+                results.addAll(processChunk(chunk, seenDocuments, ceps));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(processChunk(chunk, seenDocuments, ceps));
+        }
+
+        int created = (int) results.stream().filter(r -> r.status() == BatchRowStatus.CREATED).count();
+        return new BatchImportResultDTO(results.size(), created, results.size() - created, results);
+    }
+
+    private List<BatchRowResultDTO> processChunk(List<ImportRow> chunk, Set<String> seenDocuments, Map<String, CepLookup> ceps) {
+        BatchRowResultDTO[] results = new BatchRowResultDTO[chunk.size()];
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRow row = chunk.get(i);
+            List<String> errors = validate(row);
+
+            if (!errors.isEmpty()) {
+                results[i] = failure(row, BatchRowStatus.INVALID, errors);
+            } else if (!seenDocuments.add(row.dto().document())) {
+                results[i] = failure(row, BatchRowStatus.DUPLICATE, List.of("document: repetido no arquivo"));
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        List<String> unknownDocuments = candidates.stream()
+                .map(i -> chunk.get(i).dto().document())
+                .filter(documentIndex::mightExist)
+                .toList();
+        Set<String> existing = unknownDocuments.isEmpty() ? Set.of()
+                : new HashSet<>(usuarioRepository.findExistingDocuments(unknownDocuments));
+
+        List<Integer> insertable = new ArrayList<>();
+        Set<String> missingCeps = new LinkedHashSet<>();
+        for (int i : candidates) {
+            ImportRow row = chunk.get(i);
+            if (existing.contains(row.dto().document())) {
+                results[i] = failure(row, BatchRowStatus.DUPLICATE, List.of("document: Usuário com cpf/id existente"));
+                continue;
+            }
+            insertable.add(i);
+            if (!ceps.containsKey(row.dto().zip())) {
+                missingCeps.add(row.dto().zip());
+            }
+        }
+
+        resolveCeps(missingCeps, ceps);
+
+        List<ImportRow> toInsert = new ArrayList<>();
+        List<Integer> toInsertIndexes = new ArrayList<>();
+        for (int i : insertable) {
+            ImportRow row = chunk.get(i);
+            CepLookup lookup = ceps.get(row.dto().zip());
+
+            if (lookup.failure() != null) {
+                results[i] = failure(row, lookup.failure(), List.of("zip: " + lookup.message()));
+                continue;
+            }
+            toInsert.add(row);
+            toInsertIndexes.add(i);
+        }
+
+        Long[] ids = insert(toInsert, ceps);
+        for (int j = 0; j < toInsert.size(); j++) {
+            ImportRow row = toInsert.get(j);
+            if (ids[j] == null) {
+                results[toInsertIndexes.get(j)] = failure(row, BatchRowStatus.DUPLICATE, List.of("document: Usuário com cpf/id existente"));
+                continue;
+            }
+
+            results[toInsertIndexes.get(j)] = new BatchRowResultDTO(row.line(), BatchRowStatus.CREATED, ids[j], List.of());
+            Endereco endereco = ceps.get(row.dto().zip()).endereco();
+            eventPublisher.publishEvent(UsuarioChangedEvent.created(ids[j], row.dto().name(), row.dto().birth_date(),
+                    row.dto().document(), endereco.localidade(), endereco.uf()));
+        }
+
+        return List.of(results);
+    }
+
+    private List<String> validate(ImportRow row) {
+        if (row.parseError() != null) {
+            return List.of(row.parseError());
+        }
+
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<CreateUsuarioDTO> violation : validator.validate(row.dto())) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (row.dto().document() == null) {
+            errors.add("document: obrigatório");
+        }
+        if (row.dto().zip() == null) {
+            errors.add("zip: obrigatório");
+        }
+        return errors;
+    }
+
+    /**
+     * Consulta em paralelo (limitado) os CEPs ainda não vistos neste lote
+     */
+    private void resolveCeps(Set<String> zips, Map<String, CepLookup> ceps) {
+        CompletableFuture.allOf(zips.stream()
+                .map(zip -> CompletableFuture.runAsync(() -> ceps.put(zip, lookupCep(zip)), cepExecutor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    private CepLookup lookupCep(String zip) {
+        try {
+            Endereco endereco = cepResolver.resolve(zip);
+
+            if (endereco == null || !endereco.isFound()) {
+                return new CepLookup(null, BatchRowStatus.CEP_NOT_FOUND, "Cep não encontrado: " + zip);
+            }
+            return new CepLookup(endereco, null, null);
+        } catch (Exception e) {
+            return new CepLookup(null, BatchRowStatus.CEP_ERROR, new CepServiceException().getMessage());
+        }
+    }
+
+    /**
+     * Insere as linhas em um único lote JDBC
+     * Se outro processo cadastrar um dos documentos no meio tempo, o bloco é refeito linha a linha
+     *
+     * @return ids gerados, com null nas linhas recusadas pela restrição de unicidade
+     */
+    private Long[] insert(List<ImportRow> rows, Map<String, CepLookup> ceps) {
+        Long[] ids = new Long[rows.size()];
+        if (rows.isEmpty()) {
+            return ids;
+        }
+
+        LocalDate today = LocalDate.now();
+        try {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bind(ps, rows.get(i), ceps, today);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows.size();
+                        }
+                    },
+                    keyHolder));
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = ((Number) keys.get(i).values().iterator().next()).longValue();
+            }
+        } catch (DuplicateKeyException e) {
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = insertOne(rows.get(i), ceps, today);
+            }
+        }
+        return ids;
+    }
+
+    private Long insertOne(ImportRow row, Map<String, CepLookup> ceps, LocalDate today) {
+        try {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SQL, new String[]{"id"});
+                bind(ps, row, ceps, today);
+                return ps;
+            }, keyHolder);
+            return keyHolder.getKeyAs(Number.class).longValue();
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    private void bind(PreparedStatement ps, ImportRow row, Map<String, CepLookup> ceps, LocalDate today) throws SQLException {
+        CreateUsuarioDTO dto = row.dto();
+        Endereco endereco = ceps.get(dto.zip()).endereco();
+
+        ps.setString(1, dto.name());
+        ps.setObject(2, dto.birth_date() == null ? null : Date.valueOf(dto.birth_date()), Types.DATE);
+        ps.setString(3, dto.document());
+        ps.setString(4, endereco.logradouro());
+        ps.setObject(5, dto.address_number(), Types.INTEGER);
+        ps.setString(6, endereco.localidade());
+        ps.setString(7, endereco.uf());
+        ps.setString(8, dto.zip());
+        ps.setString(9, AddressStatus.RESOLVED.name());
+        ps.setDate(10, Date.valueOf(today));
+        ps.setDate(11, Date.valueOf(today));
+    }
+
+    private ImportRow parseNdjson(int line, String content) {
+        try {
+            return new ImportRow(line, dtoReader.readValue(content), null);
+        } catch (IOException e) {
+            return new ImportRow(line, null, "JSON inválido");
+        }
+    }
+
+    private LineParser csvParser(String header) {
+        if (header == null) {
+            throw new FileFormatException("CSV sem cabeçalho");
+        }
+
+        List<String> columns = parseCsvLine(header).stream().map(String::trim).toList();
+        Map<String, Integer> positions = new HashMap<>();
+        for (String column : CSV_COLUMNS) {
+            int position = columns.indexOf(column);
+            if (position < 0) {
+                throw new FileFormatException("CSV sem a coluna " + column);
+            }
+            positions.put(column, position);
+        }
+
+        return (line, content) -> {
+            List<String> fields = parseCsvLine(content);
+            try {
+                return new ImportRow(line, new CreateUsuarioDTO(
+                        field(fields, positions.get("name")),
+                        parseDate(field(fields, positions.get("birth_date"))),
+                        parseInteger(field(fields, positions.get("address_number"))),
+                        field(fields, positions.get("document")),
+                        field(fields, positions.get("zip"))
+                ), null);
+            } catch (RuntimeException e) {
+                return new ImportRow(line, null, "Linha CSV inválida");
+            }
+        };
+    }
+
+    private static String field(List<String> fields, int position) {
+        if (position >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(position).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate parseDate(String value) {
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    private static Integer parseInteger(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static BatchRowResultDTO failure(ImportRow row, BatchRowStatus status, List<String> errors) {
+        return new BatchRowResultDTO(row.line(), status, null, errors);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cepExecutor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+        ImportRow parse(int line, String content);
+    }
+
+    private record ImportRow(int line, CreateUsuarioDTO dto, String parseError) {
+    }
+
+    private record CepLookup(Endereco endereco, BatchRowStatus failure, String message) {
+    }
+}
@@ -1,119 +1,308 @@
 package velsis.back.services;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import velsis.back.api.CepResolverChain;
 import velsis.back.api.Endereco;
-import velsis.back.api.ViaCep;
+import velsis.back.configurations.ReplicaRoutingDataSource;
+import velsis.back.dtos.BulkDeleteUsuarioDTO;
+import velsis.back.dtos.BulkItemResultDTO;
+import velsis.back.dtos.BulkItemStatus;
+import velsis.back.dtos.BulkPatchUsuarioDTO;
+import velsis.back.dtos.BulkResultDTO;
 import velsis.back.dtos.CreateUsuarioDTO;
+import velsis.back.dtos.PatchUsuarioDTO;
 import velsis.back.dtos.UpdateAddressUsuarioDTO;
 import velsis.back.dtos.UpdateBirthDateUsuarioDTO;
 import velsis.back.dtos.UpdateDocumentUsuarioDTO;
 import velsis.back.dtos.UpdateNameUsuarioDTO;
 import velsis.back.dtos.UpdateUsuarioDTO;
+import velsis.back.dtos.UsuarioCursor;
 import velsis.back.dtos.UsuarioDTO;
+import velsis.back.dtos.UsuarioDocumentDTO;
+import velsis.back.dtos.UsuarioFilter;
 import velsis.back.dtos.UsuarioForUpdateDTO;
+import velsis.back.dtos.UsuarioPageDTO;
+import velsis.back.dtos.UsuarioSearchDTO;
+import velsis.back.dtos.UsuarioStatsDTO;
+import velsis.back.dtos.UsuarioSort;
+import velsis.back.entities.AddressStatus;
 import velsis.back.entities.Usuario;
+import velsis.back.events.UsuarioChangedEvent;
 import velsis.back.exceptions.CepNotFoundException;
 import velsis.back.exceptions.CepServiceException;
 import velsis.back.exceptions.DocumentExistException;
+import velsis.back.exceptions.InvalidBulkRequestException;
+import velsis.back.exceptions.InvalidCursorException;
+import velsis.back.exceptions.PreconditionFailedException;
 import velsis.back.exceptions.UpdateBirthDateException;
 import velsis.back.exceptions.UpdateDocumentException;
 import velsis.back.exceptions.UpdateNameException;
 import velsis.back.exceptions.UsuarioNotFoundException;
 import velsis.back.repositories.UsuarioRepository;
+import velsis.back.utils.LongHashSet;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Timer usuarios.service por método (tags class, method e exception); nas escritas assíncronas
+ * o tempo vai até a conclusão do CompletableFuture, incluindo a consulta do CEP.
+ */
 @Service
+@Timed("usuarios.service")
 public class UsuarioService {
 
-    private final UsuarioRepository usuarioRepository;
-    private final ViaCep viaCep;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_SEARCH_RESULTS = 50;
+    private static final long TOTAL_TTL_NANOS = Duration.ofSeconds(30).toNanos();
 
-    public UsuarioService(UsuarioRepository usuarioRepository, ViaCep viaCep) {
+    private final UsuarioRepository usuarioRepository;
+    private final CepResolverChain cepResolver;
+    private final AddressEnrichmentWorker addressEnrichmentWorker;
+    private final TransactionTemplate transactionTemplate;
+    private final DocumentIndex documentIndex;
+    private final UsuarioWatermark usuarioWatermark;
+    private final NameSearchIndex nameSearchIndex;
+    private final UsuarioForUpdateCache usuarioForUpdateCache;
+    private final UsuarioStats usuarioStats;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean asyncEnrichment;
+    private final int bulkChunkSize;
+    private final int bulkMaxIds;
+    private final ExecutorService writeExecutor;
+
+    private volatile CachedTotal cachedTotal;
+
+    public UsuarioService(UsuarioRepository usuarioRepository,
+                          CepResolverChain cepResolver,
+                          AddressEnrichmentWorker addressEnrichmentWorker,
+                          TransactionTemplate transactionTemplate,
+                          DocumentIndex documentIndex,
+                          UsuarioWatermark usuarioWatermark,
+                          NameSearchIndex nameSearchIndex,
+                          UsuarioForUpdateCache usuarioForUpdateCache,
+                          UsuarioStats usuarioStats,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${usuarios.address.async-enrichment:false}") boolean asyncEnrichment,
+                          @Value("${usuarios.write.threads:10}") int writeThreads,
+                          @Value("${usuarios.write.queue:1000}") int writeQueue,
+                          @Value("${usuarios.bulk.chunk-size:500}") int bulkChunkSize,
+                          @Value("${usuarios.bulk.max-ids:10000}") int bulkMaxIds,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.usuarioRepository = usuarioRepository;
-        this.viaCep = viaCep;
+        this.cepResolver = cepResolver;
+        this.addressEnrichmentWorker = addressEnrichmentWorker;
+        this.transactionTemplate = transactionTemplate;
+        this.documentIndex = documentIndex;
+        this.usuarioWatermark = usuarioWatermark;
+        this.nameSearchIndex = nameSearchIndex;
+        this.usuarioForUpdateCache = usuarioForUpdateCache;
+        this.usuarioStats = usuarioStats;
+        this.eventPublisher = eventPublisher;
+        this.asyncEnrichment = asyncEnrichment;
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkMaxIds = bulkMaxIds;
+        this.writeExecutor = new ThreadPoolExecutor(writeThreads, writeThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeQueue),
+                virtualThreads
+                        ? Thread.ofVirtual().name("usuario-write-", 0).factory()
+                        : Thread.ofPlatform().name("usuario-write-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
     }
 
     /**
      * Cria um novo usuário validando o document (cpf/id) e consultando o cep com ViaCEP
+     * O CEP é consultado de forma assíncrona antes de abrir a transação; a gravação roda no pool de escrita,
+     * sem prender a thread da requisição nem uma conexão do banco durante a chamada externa
+     * No modo assíncrono o usuário é salvo com endereço PENDING e completado em segundo plano
      *
      * @param dto - DTO com dados do usuário
+     * @return Conclusão da gravação, ou falha com uma das exceções abaixo
      * @throws DocumentExistException se o document (cpf/id) já estiver sido cadastrado
      * @throws CepNotFoundException se o CEP não for encontrado
      * @throws CepServiceException se houver erro na consulta do ViaCEP
      */
-    @Transactional
-    public void createUsuario(CreateUsuarioDTO dto) {
-        try {
-            if(usuarioRepository.existsByDocument(dto.document())){
-                throw new DocumentExistException();
-            }
-
-            Endereco endereco = viaCep.viaCep(dto.zip());
-
-            if(endereco.localidade() == null || endereco.uf() == null){
-                throw new CepNotFoundException(dto.zip());
-            }
+    public CompletableFuture<Void> createUsuario(CreateUsuarioDTO dto) {
+        return enderecoForWrite(dto.zip()).thenAcceptAsync(endereco -> writeDocument(status -> {
+            checkDocumentAvailable(dto.document(), null);
 
             Usuario usuario = new Usuario();
             usuario.setName(dto.name());
             usuario.setBirth_date(dto.birth_date());
             usuario.setDocument(dto.document());
 
-            usuario.setAddress_number(dto.address_number());
-            usuario.setZip(dto.zip());
-            usuario.setAddress_line(endereco.logradouro());
-            usuario.setCity(endereco.localidade());
-            usuario.setState(endereco.uf());
+            applyEndereco(usuario, dto.zip(), dto.address_number(), endereco);
 
             usuario.setCreated_at(LocalDate.now());
             usuario.setUpdated_at(LocalDate.now());
 
             usuarioRepository.save(usuario);
-        } catch (Exception e) {
-            throw new CepServiceException();
-        }
+            eventPublisher.publishEvent(UsuarioChangedEvent.created(usuario));
+            enqueueIfPending(usuario);
+        }), writeExecutor);
     }
 
     /**
      * Retorna todos os usuários com dados resumidos para otimização
+     * A projeção é feita na própria consulta, sem carregar as entidades completas
      *
+     * @param filter - filtros opcionais (prefixo do nome, estado, cidade e intervalos de datas)
+     * @param sort - campo de ordenação, com o id como desempate
+     * @param descending - se a ordem é decrescente
      * @return Lista de usuários contendo nome, data de aniversário, cidade e estado
      */
-    public List<UsuarioDTO> findAllUsuarios(){
-        return usuarioRepository
-                .findAll()
-                .stream()
-                .map(dto -> new UsuarioDTO(
-                        dto.getId(),
-                        dto.getName(),
-                        dto.getBirth_date(),
-                        dto.getCity(),
-                        dto.getState()
-                ))
-                .toList();
+    @Transactional(readOnly = true)
+    public List<UsuarioDTO> findAllUsuarios(UsuarioFilter filter, UsuarioSort sort, boolean descending){
+        if(isDefaultListing(filter, sort, descending)){
+            return usuarioRepository.findAllResumido();
+        }
+        return usuarioRepository.findFiltered(filter, sort, descending, null, null);
+    }
+
+    /**
+     * Retorna uma página de usuários usando paginação por keyset (cursor = posição do último usuário lido)
+     *
+     * @param after - next_cursor da página anterior (null ou "0" para a primeira página)
+     * @param limit - quantidade de usuários na página, limitada a MAX_PAGE_SIZE
+     * @param withTotal - se deve incluir o total de usuários (valor em cache por alguns segundos quando não há filtro)
+     * @param filter - filtros opcionais (prefixo do nome, estado, cidade e intervalos de datas)
+     * @param sort - campo de ordenação; o cursor leva o valor desse campo e o id do último usuário
+     * @param descending - se a ordem é decrescente
+     * @return Página com os usuários, o cursor da próxima página (null na última) e o total opcional
+     * @throws InvalidCursorException se o cursor for inválido ou de outra ordenação
+     */
+    @Transactional(readOnly = true)
+    public UsuarioPageDTO findUsuariosPage(String after, int limit, boolean withTotal,
+                                           UsuarioFilter filter, UsuarioSort sort, boolean descending){
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        UsuarioCursor cursor = UsuarioCursor.decode(after, sort);
+        boolean defaultListing = isDefaultListing(filter, sort, descending);
+        List<UsuarioDTO> content = defaultListing
+                ? usuarioRepository.findPageAfter(cursor != null ? cursor.id() : 0, Limit.of(size + 1))
+                : usuarioRepository.findFiltered(filter, sort, descending, cursor, size + 1);
+
+        String nextCursor = null;
+        if(content.size() > size){
+            content = content.subList(0, size);
+            nextCursor = UsuarioCursor.after(sort, content.get(size - 1)).encode();
+        }
+
+        Long total = null;
+        if(withTotal){
+            total = filter.isEmpty() ? countUsuarios() : usuarioRepository.countFiltered(filter);
+        }
+
+        return new UsuarioPageDTO(content, nextCursor, total);
+    }
+
+    private static boolean isDefaultListing(UsuarioFilter filter, UsuarioSort sort, boolean descending){
+        return filter.isEmpty() && sort == UsuarioSort.ID && !descending;
+    }
+
+    /**
+     * Busca usuários cujo nome contém o texto digitado, para o typeahead
+     * Usa o índice de trigramas em memória; enquanto ele carrega, a busca vai ao banco
+     *
+     * @param query - texto digitado (acentos e maiúsculas são ignorados)
+     * @param limit - quantidade de resultados, limitada a MAX_SEARCH_RESULTS
+     * @return Usuários ordenados pela similaridade do nome com a busca
+     */
+    @Transactional(readOnly = true)
+    public List<UsuarioSearchDTO> searchUsuarios(String query, int limit){
+        int size = Math.clamp(limit, 1, MAX_SEARCH_RESULTS);
+        if(query == null || query.isBlank()){
+            return List.of();
+        }
+
+        if(!nameSearchIndex.isReady()){
+            return usuarioRepository.searchByName(query.trim(), Limit.of(size));
+        }
+        return nameSearchIndex.search(query, size);
+    }
+
+    /**
+     * Totais de usuários por estado, cidade e faixa etária, lidos dos contadores em memória
+     */
+    public UsuarioStatsDTO stats(){
+        return usuarioStats.stats();
+    }
+
+    /**
+     * Versão atual da listagem de usuários, alterada a cada escrita confirmada
+     * Permite responder If-None-Match sem consultar o banco
+     */
+    public long listVersion(){
+        return usuarioWatermark.current();
+    }
+
+    /**
+     * Conta os usuários reaproveitando o último valor por alguns segundos,
+     * evitando um COUNT(*) na tabela inteira a cada página solicitada
+     */
+    private long countUsuarios(){
+        CachedTotal current = cachedTotal;
+        long now = System.nanoTime();
+
+        if(current == null || now - current.loadedAt() > TOTAL_TTL_NANOS){
+            current = new CachedTotal(usuarioRepository.count(), now);
+            cachedTotal = current;
+        }
+
+        return current.value();
     }
 
     /**
      * Retorna o usuário com dados resumidos para atualização
+     * Lido do cache em memória, que é descartado após cada escrita no usuário
+     * Em caso de falha no cache a leitura vai ao primário, e não às réplicas:
+     * uma réplica atrasada deixaria a versão antiga, e o seu ETag, no cache até o TTL.
      *
      * @return O usuários contendo nome, data de aniversário, document, cep e número de endereço
      */
     public List<UsuarioForUpdateDTO> findUsuarioForUpdate(Long id){
-        return usuarioRepository
+        UsuarioForUpdateDTO usuario = usuarioForUpdateCache.get(id, this::loadUsuarioForUpdate);
+        return usuario == null ? List.of() : List.of(usuario);
+    }
+
+    private UsuarioForUpdateDTO loadUsuarioForUpdate(Long id){
+        return ReplicaRoutingDataSource.onPrimary(() -> usuarioRepository
                 .findById(id)
-                .stream()
                 .map(user -> new UsuarioForUpdateDTO(
                         user.getId(),
                         user.getName(),
                         user.getBirth_date(),
                         user.getDocument(),
                         user.getZip(),
-                        user.getAddress_number()
+                        user.getAddress_number(),
+                        user.getVersion()
                 ))
-                .toList();
+                .orElse(null));
     }
 
     /**
@@ -129,148 +318,472 @@ public class UsuarioService {
                 .orElseThrow(UsuarioNotFoundException::new);
 
         usuarioRepository.delete(usuario);
+        eventPublisher.publishEvent(UsuarioChangedEvent.deleted(usuario.getId(), usuario.getDocument()));
     }
 
     /**
      * Atualiza apenas o nome do usuário
+     * Executa um único UPDATE; o usuário inexistente é detectado pela quantidade de linhas alteradas
      *
      * @param dto para id do usuário a ser atualizado e o novo nome para o usuário
+     * @param expectedVersion - versão informada no If-Match, ou null para não condicionar
      * @throws UsuarioNotFoundException se usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão esperada
      * @throws UpdateNameException se o novo nome for nulo ou vazio
      */
     @Transactional
-    public void updateNameUsuario(UpdateNameUsuarioDTO dto){
-        Usuario usuario = usuarioRepository
-                .findById(dto.id())
-                .orElseThrow(UsuarioNotFoundException::new);
-
+    public void updateNameUsuario(UpdateNameUsuarioDTO dto, Long expectedVersion){
         if(dto.name() == null || dto.name().isEmpty()){
             throw new UpdateNameException();
         }
 
-        usuario.setName(dto.name());
-        usuario.setUpdated_at(LocalDate.now());
-
-        usuarioRepository.save(usuario);
+        requireUpdated(usuarioRepository.updateName(dto.id(), expectedVersion, dto.name(), LocalDate.now()), dto.id(), expectedVersion);
+        eventPublisher.publishEvent(UsuarioChangedEvent.nameChanged(dto.id(), dto.name()));
     }
 
     /**
-     * Atualiza apenas a data de aniversário do usuário
+     * Atualiza apenas a data de aniversário do usuário em um único UPDATE
      *
      * @param dto para id do usuário a ser atualizado e o nova data de aniversário para o usuário
+     * @param expectedVersion - versão informada no If-Match, ou null para não condicionar
      * @throws UsuarioNotFoundException se usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão esperada
      * @throws UpdateBirthDateException se a nova data de aniversário for nula
      */
     @Transactional
-    public void updateBirthDateUsuario(UpdateBirthDateUsuarioDTO dto){
-        Usuario usuario = usuarioRepository
-                .findById(dto.id())
-                .orElseThrow(UsuarioNotFoundException::new);
-
+    public void updateBirthDateUsuario(UpdateBirthDateUsuarioDTO dto, Long expectedVersion){
         if(dto.birth_date() == null){
             throw new UpdateBirthDateException();
         }
 
-        usuario.setBirth_date(dto.birth_date());
-        usuario.setUpdated_at(LocalDate.now());
-
-        usuarioRepository.save(usuario);
+        requireUpdated(usuarioRepository.updateBirthDate(dto.id(), expectedVersion, dto.birth_date(), LocalDate.now()), dto.id(), expectedVersion);
+        eventPublisher.publishEvent(UsuarioChangedEvent.birthDateChanged(dto.id(), dto.birth_date()));
     }
 
     /**
-     * Atualiza apenas o endereço do usuário
+     * Atualiza apenas o endereço do usuário em um único UPDATE
+     * O CEP é consultado de forma assíncrona antes de abrir a transação, que roda no pool de escrita
      *
      * @param dto para id do usuário a ser atualizado e o novo endereço para o usuário
+     * @param expectedVersion - versão informada no If-Match, ou null para não condicionar
+     * @return Conclusão da gravação, ou falha com uma das exceções abaixo
      * @throws UsuarioNotFoundException se usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão esperada
      * @throws CepNotFoundException se o CEP não for encontrado
      * @throws CepServiceException se houver erro na consulta do ViaCEP
      */
-    @Transactional
-    public void updateAddressUsuario(UpdateAddressUsuarioDTO dto){
-
-        Usuario usuario = usuarioRepository
-                .findById(dto.id())
-                .orElseThrow(UsuarioNotFoundException::new);
-
-        try {
-            Endereco endereco = viaCep.viaCep(dto.zip());
-
-            if(endereco.localidade() == null || endereco.uf() == null){
-                throw new CepNotFoundException(dto.zip());
+    public CompletableFuture<Void> updateAddressUsuario(UpdateAddressUsuarioDTO dto, Long expectedVersion){
+        return enderecoForWrite(dto.zip()).thenAcceptAsync(endereco -> transactionTemplate.executeWithoutResult(status -> {
+            AddressStatus addressStatus = endereco == null ? AddressStatus.PENDING : AddressStatus.RESOLVED;
+            String city = endereco == null ? null : endereco.localidade();
+            String state = endereco == null ? null : endereco.uf();
+
+            requireUpdated(usuarioRepository.updateEndereco(dto.id(), expectedVersion, dto.zip(), dto.address_number(),
+                    endereco == null ? null : endereco.logradouro(), city, state, addressStatus, LocalDate.now()),
+                    dto.id(), expectedVersion);
+
+            eventPublisher.publishEvent(UsuarioChangedEvent.addressChanged(dto.id(), city, state));
+            if(endereco == null){
+                addressEnrichmentWorker.enqueue(dto.id(), dto.zip());
             }
-
-            usuario.setZip(dto.zip());
-            usuario.setAddress_number(dto.address_number());
-            usuario.setAddress_line(endereco.logradouro());
-            usuario.setCity(endereco.localidade());
-            usuario.setState(endereco.uf());
-            usuario.setUpdated_at(LocalDate.now());
-
-        } catch (CepNotFoundException e) {
-            throw e;
-        } catch (Exception e){
-            throw new CepServiceException();
-        }
+        }), writeExecutor);
     }
 
     /**
-     * Atualiza apenas o document (cpf/id) do usuário
+     * Atualiza apenas o document (cpf/id) do usuário em um único UPDATE
      *
      * @param dto para id do usuário a ser atualizado e o novo document (cpf/id) para o usuário
+     * @param expectedVersion - versão informada no If-Match, ou null para não condicionar
      * @throws UsuarioNotFoundException se usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão esperada
      * @throws UpdateDocumentException se o novo document (cpf/id) for nulo
+     * @throws DocumentExistException se o document (cpf/id) pertencer a outro usuário
      */
-    @Transactional
-    public void updateDocumentUsuario(UpdateDocumentUsuarioDTO dto){
-        Usuario usuario = usuarioRepository
-                .findById(dto.id())
-                .orElseThrow(UsuarioNotFoundException::new);
-
+    public void updateDocumentUsuario(UpdateDocumentUsuarioDTO dto, Long expectedVersion){
         if(dto.document() == null){
             throw new UpdateDocumentException();
         }
 
-        usuario.setDocument(dto.document());
-        usuario.setUpdated_at(LocalDate.now());
+        writeDocument(status -> {
+            checkDocumentAvailable(dto.document(), dto.id());
 
-        usuarioRepository.save(usuario);
+            requireUpdated(usuarioRepository.updateDocument(dto.id(), expectedVersion, dto.document(), LocalDate.now()), dto.id(), expectedVersion);
+            eventPublisher.publishEvent(UsuarioChangedEvent.documentChanged(dto.id(), dto.document()));
+        });
     }
 
     /**
      * Atualiza todos os dados do usuário
+     * O CEP é consultado de forma assíncrona antes de abrir a transação e carregar o usuário no pool de escrita
      *
      * @param dto para id do usuário a ser atualizado e os novos dados
+     * @param expectedVersion - versão informada no If-Match, ou null para não condicionar
+     * @return Conclusão da gravação, ou falha com uma das exceções abaixo
      * @throws UsuarioNotFoundException se usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão esperada
+     * @throws DocumentExistException se o document (cpf/id) pertencer a outro usuário
      * @throws CepNotFoundException se o CEP não for encontrado
      * @throws CepServiceException se houver erro na consulta do ViaCEP
      */
-    @Transactional
-    public void updateUsuario(UpdateUsuarioDTO dto){
-        Usuario usuario = usuarioRepository
-                .findById(dto.id())
-                .orElseThrow(UsuarioNotFoundException::new);
-
-        try {
-            Endereco endereco = viaCep.viaCep(dto.zip());
-
-            if(endereco.localidade() == null || endereco.uf() == null){
-                throw new CepNotFoundException(dto.zip());
+    public CompletableFuture<Void> updateUsuario(UpdateUsuarioDTO dto, Long expectedVersion){
+        return enderecoForWrite(dto.zip()).thenAcceptAsync(endereco -> writeDocument(status -> {
+            Usuario usuario = usuarioRepository
+                    .findById(dto.id())
+                    .orElseThrow(UsuarioNotFoundException::new);
+
+            if(expectedVersion != null && usuario.getVersion() != expectedVersion){
+                throw new PreconditionFailedException();
             }
 
+            checkDocumentAvailable(dto.document(), usuario.getId());
+
             usuario.setName(dto.name());
             usuario.setBirth_date(dto.birth_date());
             usuario.setDocument(dto.document());
-            usuario.setZip(dto.zip());
-            usuario.setAddress_number(dto.address_number());
-            usuario.setAddress_line(endereco.logradouro());
-            usuario.setCity(endereco.localidade());
-            usuario.setState(endereco.uf());
+            applyEndereco(usuario, dto.zip(), dto.address_number(), endereco);
             usuario.setUpdated_at(LocalDate.now());
 
-        } catch (CepNotFoundException e) {
+            eventPublisher.publishEvent(UsuarioChangedEvent.updated(usuario));
+            enqueueIfPending(usuario);
+        }), writeExecutor);
+    }
+
+    /**
+     * Aplica um JSON merge-patch com qualquer combinação de campos em um único UPDATE
+     * O CEP, quando informado, é consultado de forma assíncrona antes de abrir a transação no pool de escrita
+     *
+     * @param id - ID do usuário a ser atualizado
+     * @param dto - campos a alterar; campos nulos são mantidos
+     * @param expectedVersion - versão informada no If-Match, ou null para não condicionar
+     * @return Conclusão da gravação, ou falha com uma das exceções abaixo
+     * @throws UsuarioNotFoundException se usuário não for encontrado
+     * @throws PreconditionFailedException se o usuário mudou desde a versão esperada
+     * @throws DocumentExistException se o document (cpf/id) pertencer a outro usuário
+     * @throws CepNotFoundException se o CEP não for encontrado
+     * @throws CepServiceException se houver erro na consulta do ViaCEP
+     */
+    public CompletableFuture<Void> patchUsuario(long id, PatchUsuarioDTO dto, Long expectedVersion){
+        CompletableFuture<Endereco> lookup = dto.zip() == null
+                ? CompletableFuture.completedFuture(null)
+                : enderecoForWrite(dto.zip());
+
+        return lookup.thenAcceptAsync(endereco -> writeDocument(status -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            Set<UsuarioChangedEvent.Field> fields = EnumSet.noneOf(UsuarioChangedEvent.Field.class);
+
+            if(dto.name() != null){
+                values.put("name", dto.name());
+                fields.add(UsuarioChangedEvent.Field.NAME);
+            }
+            if(dto.birth_date() != null){
+                values.put("birth_date", dto.birth_date());
+                fields.add(UsuarioChangedEvent.Field.BIRTH_DATE);
+            }
+            if(dto.document() != null){
+                checkDocumentAvailable(dto.document(), id);
+                values.put("document", dto.document());
+                fields.add(UsuarioChangedEvent.Field.DOCUMENT);
+            }
+            if(dto.address_number() != null){
+                values.put("address_number", dto.address_number());
+            }
+            if(dto.zip() != null){
+                values.put("zip", dto.zip());
+                values.put("address_line", endereco == null ? null : endereco.logradouro());
+                values.put("city", endereco == null ? null : endereco.localidade());
+                values.put("state", endereco == null ? null : endereco.uf());
+                values.put("address_status", endereco == null ? AddressStatus.PENDING : AddressStatus.RESOLVED);
+                fields.add(UsuarioChangedEvent.Field.ADDRESS);
+            }
+            values.put("updated_at", LocalDate.now());
+
+            requireUpdated(usuarioRepository.updateFields(id, expectedVersion, values), id, expectedVersion);
+
+            eventPublisher.publishEvent(new UsuarioChangedEvent(UsuarioChangedEvent.Type.UPDATED, id, fields,
+                    dto.name(), dto.birth_date(), dto.document(),
+                    (String) values.get("city"), (String) values.get("state")));
+            if(dto.zip() != null && endereco == null){
+                addressEnrichmentWorker.enqueue(id, dto.zip());
+            }
+        }), writeExecutor);
+    }
+
+    /**
+     * Exclui em lote os usuários informados por id ou selecionados pelos filtros da listagem
+     * Cada bloco de até usuarios.bulk.chunk-size usuários roda na própria transação, com dois comandos:
+     * SELECT ... FOR UPDATE, que identifica os existentes, e DELETE ... WHERE id IN (...)
+     *
+     * @param dto - ids ou filtros (exatamente um dos dois)
+     * @return Resultado por id: DONE ou NOT_FOUND
+     * @throws InvalidBulkRequestException se a seleção estiver vazia, for ambígua ou passar de usuarios.bulk.max-ids
+     */
+    public BulkResultDTO deleteUsuarios(BulkDeleteUsuarioDTO dto){
+        checkBulkSelection(dto.ids(), dto.filter());
+
+        return bulk(dto.ids(), dto.filter(), usuarios -> {
+            usuarioRepository.deleteAllByIdInBatch(usuarios.stream().map(UsuarioDocumentDTO::id).toList());
+            usuarios.forEach(usuario -> eventPublisher.publishEvent(
+                    UsuarioChangedEvent.deleted(usuario.id(), usuario.document())));
+        });
+    }
+
+    /**
+     * Altera os mesmos campos em lote nos usuários informados por id ou selecionados pelos filtros da listagem
+     * O CEP, quando informado, é consultado uma única vez antes de abrir as transações no pool de escrita;
+     * cada bloco roda na própria transação com SELECT ... FOR UPDATE e UPDATE ... WHERE id IN (...)
+     *
+     * @param dto - ids ou filtros e os campos a alterar; campos nulos são mantidos
+     * @return Resultado por id (DONE ou NOT_FOUND), ou falha com uma das exceções abaixo
+     * @throws InvalidBulkRequestException se a seleção for inválida ou nenhum campo for informado
+     * @throws CepNotFoundException se o CEP não for encontrado
+     * @throws CepServiceException se houver erro na consulta do ViaCEP
+     */
+    public CompletableFuture<BulkResultDTO> patchUsuarios(BulkPatchUsuarioDTO dto){
+        if(dto.name() == null && dto.birth_date() == null && dto.address_number() == null && dto.zip() == null){
+            throw new InvalidBulkRequestException("Nenhum campo a alterar");
+        }
+        checkBulkSelection(dto.ids(), dto.filter());
+
+        CompletableFuture<Endereco> lookup = dto.zip() == null
+                ? CompletableFuture.completedFuture(null)
+                : enderecoForWrite(dto.zip());
+
+        return lookup.thenApplyAsync(endereco -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            Set<UsuarioChangedEvent.Field> fields = EnumSet.noneOf(UsuarioChangedEvent.Field.class);
+
+            if(dto.name() != null){
+                values.put("name", dto.name());
+                fields.add(UsuarioChangedEvent.Field.NAME);
+            }
+            if(dto.birth_date() != null){
+                values.put("birth_date", dto.birth_date());
+                fields.add(UsuarioChangedEvent.Field.BIRTH_DATE);
+            }
+            if(dto.address_number() != null){
+                values.put("address_number", dto.address_number());
+            }
+            if(dto.zip() != null){
+                values.put("zip", dto.zip());
+                values.put("address_line", endereco == null ? null : endereco.logradouro());
+                values.put("city", endereco == null ? null : endereco.localidade());
+                values.put("state", endereco == null ? null : endereco.uf());
+                values.put("address_status", endereco == null ? AddressStatus.PENDING : AddressStatus.RESOLVED);
+                fields.add(UsuarioChangedEvent.Field.ADDRESS);
+            }
+            values.put("updated_at", LocalDate.now());
+
+            return bulk(dto.ids(), dto.filter(), usuarios -> {
+                List<Long> ids = usuarios.stream().map(UsuarioDocumentDTO::id).toList();
+                usuarioRepository.updateFields(ids, values);
+
+                for(long id : ids){
+                    eventPublisher.publishEvent(new UsuarioChangedEvent(UsuarioChangedEvent.Type.UPDATED, id, fields,
+                            dto.name(), dto.birth_date(), null,
+                            (String) values.get("city"), (String) values.get("state")));
+                    if(dto.zip() != null && endereco == null){
+                        addressEnrichmentWorker.enqueue(id, dto.zip());
+                    }
+                }
+            });
+        }, writeExecutor);
+    }
+
+    /**
+     * Percorre a seleção de uma operação em lote em blocos de bulkChunkSize usuários, um por transação
+     * Com ids, cada bloco é conferido com um SELECT ... WHERE id IN (...); com filtros, os blocos seguem por keyset
+     * sobre o id. A ação recebe apenas os usuários existentes, já bloqueados até o commit do bloco.
+     */
+    private BulkResultDTO bulk(List<Long> ids, UsuarioFilter filter, Consumer<List<UsuarioDocumentDTO>> action){
+        List<BulkItemResultDTO> items = new ArrayList<>();
+
+        if(ids != null){
+            List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+            for(int from = 0; from < distinct.size(); from += bulkChunkSize){
+                List<Long> chunk = distinct.subList(from, Math.min(from + bulkChunkSize, distinct.size()));
+                LongHashSet found = new LongHashSet(chunk.size());
+
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<UsuarioDocumentDTO> usuarios = usuarioRepository.findDocumentsForUpdate(chunk);
+                    usuarios.forEach(usuario -> found.add(usuario.id()));
+                    if(!usuarios.isEmpty()){
+                        action.accept(usuarios);
+                    }
+                });
+
+                for(long id : chunk){
+                    items.add(new BulkItemResultDTO(id, found.contains(id) ? BulkItemStatus.DONE : BulkItemStatus.NOT_FOUND));
+                }
+            }
+            return BulkResultDTO.of(items);
+        }
+
+        long after = 0;
+        while(true){
+            long cursor = after;
+            List<UsuarioDocumentDTO> usuarios = transactionTemplate.execute(status -> {
+                List<UsuarioDocumentDTO> chunk = usuarioRepository.findFilteredDocumentsForUpdate(filter, cursor, bulkChunkSize);
+                if(!chunk.isEmpty()){
+                    action.accept(chunk);
+                }
+                return chunk;
+            });
+
+            usuarios.forEach(usuario -> items.add(new BulkItemResultDTO(usuario.id(), BulkItemStatus.DONE)));
+            if(usuarios.size() < bulkChunkSize){
+                return BulkResultDTO.of(items);
+            }
+            after = usuarios.getLast().id();
+        }
+    }
+
+    /**
+     * Exige exatamente uma seleção: ids (até bulkMaxIds) ou filtros não vazios que atendam a até bulkMaxIds usuários
+     * Filtros vazios são recusados para que um corpo incompleto não altere ou exclua a base inteira
+     */
+    private void checkBulkSelection(List<Long> ids, UsuarioFilter filter){
+        if((ids == null) == (filter == null)){
+            throw new InvalidBulkRequestException("Informe ids ou filter, e não os dois");
+        }
+        if(ids != null){
+            if(ids.isEmpty() || ids.size() > bulkMaxIds || ids.contains(null)){
+                throw new InvalidBulkRequestException("ids deve ter de 1 a " + bulkMaxIds + " ids válidos");
+            }
+            return;
+        }
+        if(filter.isEmpty()){
+            throw new InvalidBulkRequestException("filter não pode ser vazio");
+        }
+        if(usuarioRepository.countFiltered(filter) > bulkMaxIds){
+            throw new InvalidBulkRequestException("filter seleciona mais de " + bulkMaxIds + " usuários");
+        }
+    }
+
+    /**
+     * Interpreta a quantidade de linhas de um UPDATE condicional
+     * Nenhuma linha com o usuário existente significa que a versão esperada já mudou
+     */
+    private void requireUpdated(int rows, long id, Long expectedVersion){
+        if(rows > 0){
+            return;
+        }
+        if(expectedVersion != null && usuarioRepository.existsById(id)){
+            throw new PreconditionFailedException();
+        }
+        throw new UsuarioNotFoundException();
+    }
+
+    /**
+     * Verifica se o document (cpf/id) está livre, indo ao banco só quando o índice em memória não descarta
+     *
+     * @param currentId - id do usuário sendo alterado, que pode manter o próprio document (null na criação)
+     */
+    private void checkDocumentAvailable(String document, Long currentId){
+        if(!documentIndex.mightExist(document)){
+            return;
+        }
+
+        boolean exists = currentId == null
+                ? usuarioRepository.existsByDocument(document)
+                : usuarioRepository.existsByDocumentAndIdNot(document, currentId);
+        if(exists){
+            throw new DocumentExistException();
+        }
+    }
+
+    /**
+     * Executa uma escrita que grava o document (cpf/id)
+     * Se duas requisições passarem pela verificação ao mesmo tempo, a constraint única do banco
+     * rejeita a segunda, e a violação é devolvida como DocumentExistException.
+     * Um conflito de @Version no commit é devolvido como PreconditionFailedException.
+     */
+    private void writeDocument(Consumer<TransactionStatus> action){
+        try {
+            transactionTemplate.executeWithoutResult(action);
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException();
+        } catch (DataIntegrityViolationException e) {
+            if(isUniqueViolation(e)){
+                throw new DocumentExistException();
+            }
             throw e;
-        } catch (Exception e){
-            throw new CepServiceException();
         }
     }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException e){
+        if(e instanceof DuplicateKeyException){
+            return true;
+        }
+
+        for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause()){
+            if(cause instanceof ConstraintViolationException violation){
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Consulta o CEP para uma escrita sem bloquear a thread atual
+     * No modo síncrono o CEP precisa existir; no modo assíncrono apenas o cache é consultado
+     * e null indica que o endereço será completado em segundo plano
+     *
+     * @return Endereço, ou falha com CepNotFoundException / CepServiceException
+     */
+    private CompletableFuture<Endereco> enderecoForWrite(String zip){
+        if(!asyncEnrichment){
+            return cepResolver.resolveAsync(zip).handle((endereco, error) -> {
+                if(error != null){
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    throw cause instanceof CepServiceException cepError ? cepError : new CepServiceException(cause);
+                }
+                if(endereco == null){
+                    throw new CepServiceException();
+                }
+                if(!endereco.isFound()){
+                    throw new CepNotFoundException(zip);
+                }
+                return endereco;
+            });
+        }
+
+        Endereco cached = cepResolver.peek(zip);
+        if(cached != null && !cached.isFound()){
+            return CompletableFuture.failedFuture(new CepNotFoundException(zip));
+        }
+        return CompletableFuture.completedFuture(cached);
+    }
+
+    private void applyEndereco(Usuario usuario, String zip, Integer addressNumber, Endereco endereco){
+        usuario.setZip(zip);
+        usuario.setAddress_number(addressNumber);
+
+        if(endereco == null){
+            usuario.setAddress_line(null);
+            usuario.setCity(null);
+            usuario.setState(null);
+            usuario.setAddress_status(AddressStatus.PENDING);
+            return;
+        }
+
+        usuario.setAddress_line(endereco.logradouro());
+        usuario.setCity(endereco.localidade());
+        usuario.setState(endereco.uf());
+        usuario.setAddress_status(AddressStatus.RESOLVED);
+    }
+
+    private void enqueueIfPending(Usuario usuario){
+        if(usuario.getAddress_status() == AddressStatus.PENDING){
+            addressEnrichmentWorker.enqueue(usuario.getId(), usuario.getZip());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        writeExecutor.shutdown();
+    }
+
+    private record CachedTotal(long value, long loadedAt) {
+    }
 }
@@ -0,0 +1,367 @@
+package velsis.back.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import velsis.back.configurations.ReplicaRoutingDataSource;
+import velsis.back.dtos.AgeBucketDTO;
+import velsis.back.dtos.CityStatsDTO;
+import velsis.back.dtos.StateStatsDTO;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.dtos.UsuarioStatsDTO;
+import velsis.back.events.UsuarioChangedEvent;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.utils.LongIntHashMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Estatísticas dos usuários (total, por estado e cidade, por faixa etária) mantidas em contadores LongAdder
+ * Os contadores são carregados uma vez na inicialização percorrendo a tabela em stream e depois atualizados
+ * pelos eventos de cadastro, alteração de endereço ou nascimento e remoção; a leitura não consulta o banco.
+ *
+ * Os eventos trazem só os valores novos, então o estado e o nascimento atuais de cada id ficam guardados
+ * para saber de qual contador descontar. A idade é calculada na consulta a partir das contagens por data
+ * de nascimento, assim as faixas não envelhecem.
+ *
+ * A reconciliação periódica (usuarios.stats.reconcile-interval) recarrega tudo do primário e corrige
+ * o que divergiu, como escritas feitas por outras instâncias. Os eventos recebidos durante a carga
+ * são reaplicados sobre os contadores novos antes da troca.
+ */
+@Slf4j
+@Component
+public class UsuarioStats {
+
+    private static final int[] AGE_LIMITS = {18, 25, 35, 45, 55, 65};
+    private static final int NO_BIRTH_DATE = Integer.MAX_VALUE;
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int expectedSize;
+    private final Object lock = new Object();
+
+    private volatile Counters counters;
+    private List<UsuarioChangedEvent> pendingEvents;
+
+    public UsuarioStats(UsuarioRepository usuarioRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${usuarios.stats.enabled:true}") boolean enabled,
+                        @Value("${usuarios.stats.expected-size:100000}") int expectedSize) {
+        this.usuarioRepository = usuarioRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedSize = Math.max(expectedSize, 16);
+    }
+
+    public boolean isReady() {
+        return counters != null;
+    }
+
+    /**
+     * Estatísticas atuais; enquanto os contadores não foram carregados, agrupa direto no banco
+     */
+    public UsuarioStatsDTO stats() {
+        Counters current = counters;
+        if (current != null) {
+            return toDTO(current.byLocation(), current.byBirthDate(), LocalDate.now());
+        }
+
+        Map<Location, Long> byLocation = new HashMap<>();
+        for (Object[] row : usuarioRepository.countByLocation()) {
+            byLocation.merge(new Location((String) row[0], (String) row[1]), (Long) row[2], Long::sum);
+        }
+        Map<Integer, Long> byBirthDate = new HashMap<>();
+        for (Object[] row : usuarioRepository.countByBirthDate()) {
+            byBirthDate.merge(epochDay((LocalDate) row[0]), (Long) row[1], Long::sum);
+        }
+        return toDTO(byLocation, byBirthDate, LocalDate.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioChanged(UsuarioChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (lock) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            if (counters != null) {
+                counters.apply(event);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread.ofPlatform().name("usuario-stats-warmup").daemon().start(() -> {
+            try {
+                long start = System.nanoTime();
+                reload();
+                log.info("Estatísticas de usuários carregadas com {} usuários em {} ms",
+                        counters.total.sum(), (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                log.warn("Falha ao carregar as estatísticas de usuários, a consulta continua usando o banco", e);
+            }
+        });
+    }
+
+    /**
+     * Recarrega os contadores do banco e registra quanto tinham divergido
+     */
+    @Scheduled(initialDelayString = "${usuarios.stats.reconcile-interval:1h}",
+            fixedDelayString = "${usuarios.stats.reconcile-interval:1h}")
+    public void reconcile() {
+        if (!enabled || counters == null) {
+            return;
+        }
+
+        Counters previous = counters;
+        Counters reloaded = reload();
+        if (reloaded == null) {
+            return;
+        }
+
+        long drift = drift(previous.byLocation(), reloaded.byLocation())
+                + drift(previous.byBirthDate(), reloaded.byBirthDate());
+        if (drift > 0) {
+            log.warn("Reconciliação das estatísticas de usuários corrigiu {} divergências (total {} -> {})",
+                    drift, previous.total.sum(), reloaded.total.sum());
+        }
+    }
+
+    /**
+     * Carrega contadores novos e os coloca no lugar dos atuais
+     * A leitura vai para o primário para não perder escritas ainda não replicadas, que não seriam reaplicadas
+     *
+     * @return os contadores novos, ou null se outra carga já estava em andamento
+     */
+    private Counters reload() {
+        synchronized (lock) {
+            if (pendingEvents != null) {
+                return null;
+            }
+            pendingEvents = new ArrayList<>();
+        }
+
+        Counters reloaded = new Counters(expectedSize);
+        boolean loaded = false;
+        try {
+            ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> {
+                try (Stream<UsuarioDTO> stream = usuarioRepository.streamAllResumido()) {
+                    stream.forEach(usuario -> reloaded.add(usuario.id(), usuario.birth_date(),
+                            usuario.city(), usuario.state()));
+                }
+                return null;
+            }));
+            loaded = true;
+        } finally {
+            synchronized (lock) {
+                if (loaded) {
+                    pendingEvents.forEach(reloaded::apply);
+                    counters = reloaded;
+                }
+                pendingEvents = null;
+            }
+        }
+        return reloaded;
+    }
+
+    private static UsuarioStatsDTO toDTO(Map<Location, Long> byLocation, Map<Integer, Long> byBirthDate, LocalDate today) {
+        long total = 0;
+        long withoutAddress = 0;
+        Map<String, List<CityStatsDTO>> citiesByState = new TreeMap<>();
+        for (Map.Entry<Location, Long> entry : byLocation.entrySet()) {
+            long count = entry.getValue();
+            if (count <= 0) {
+                continue;
+            }
+
+            total += count;
+            Location location = entry.getKey();
+            if (location.state() == null || location.city() == null) {
+                withoutAddress += count;
+            } else {
+                citiesByState.computeIfAbsent(location.state(), state -> new ArrayList<>())
+                        .add(new CityStatsDTO(location.city(), count));
+            }
+        }
+
+        Comparator<CityStatsDTO> byCityTotal = Comparator.comparingLong(CityStatsDTO::total).reversed()
+                .thenComparing(CityStatsDTO::city);
+        List<StateStatsDTO> states = new ArrayList<>(citiesByState.size());
+        citiesByState.forEach((state, cities) -> {
+            cities.sort(byCityTotal);
+            states.add(new StateStatsDTO(state, cities.stream().mapToLong(CityStatsDTO::total).sum(), cities));
+        });
+        states.sort(Comparator.comparingLong(StateStatsDTO::total).reversed().thenComparing(StateStatsDTO::state));
+
+        // nascidos até limits[i] já completaram AGE_LIMITS[i] anos
+        long[] limits = new long[AGE_LIMITS.length];
+        for (int i = 0; i < AGE_LIMITS.length; i++) {
+            limits[i] = today.minusYears(AGE_LIMITS[i]).toEpochDay();
+        }
+        long[] buckets = new long[AGE_LIMITS.length + 1];
+        long withoutBirthDate = 0;
+        for (Map.Entry<Integer, Long> entry : byBirthDate.entrySet()) {
+            int day = entry.getKey();
+            if (day == NO_BIRTH_DATE) {
+                withoutBirthDate += entry.getValue();
+                continue;
+            }
+
+            int bucket = 0;
+            while (bucket < limits.length && day <= limits[bucket]) {
+                bucket++;
+            }
+            buckets[bucket] += entry.getValue();
+        }
+
+        List<AgeBucketDTO> ageBuckets = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            int minAge = i == 0 ? 0 : AGE_LIMITS[i - 1];
+            Integer maxAge = i < AGE_LIMITS.length ? AGE_LIMITS[i] - 1 : null;
+            ageBuckets.add(new AgeBucketDTO(minAge, maxAge, buckets[i]));
+        }
+
+        return new UsuarioStatsDTO(total, withoutAddress, withoutBirthDate, states, ageBuckets);
+    }
+
+    private static <K> long drift(Map<K, Long> previous, Map<K, Long> current) {
+        long drift = 0;
+        for (Map.Entry<K, Long> entry : current.entrySet()) {
+            drift += Math.abs(entry.getValue() - previous.getOrDefault(entry.getKey(), 0L));
+        }
+        for (Map.Entry<K, Long> entry : previous.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                drift += Math.abs(entry.getValue());
+            }
+        }
+        return drift;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_BIRTH_DATE : (int) date.toEpochDay();
+    }
+
+    private record Location(String state, String city) {
+    }
+
+    /**
+     * Contadores e o estado atual de cada id; alterados apenas com o lock de UsuarioStats,
+     * lidos sem lock pelas somas dos LongAdder
+     */
+    private static final class Counters {
+
+        private final LongAdder total = new LongAdder();
+        private final ConcurrentMap<Location, LongAdder> byLocation = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Integer, LongAdder> byBirthDate = new ConcurrentHashMap<>();
+
+        private final LongIntHashMap locationById;
+        private final LongIntHashMap birthDateById;
+        private final List<Location> locations = new ArrayList<>();
+        private final Map<Location, Integer> locationIndexes = new HashMap<>();
+
+        private Counters(int expectedSize) {
+            this.locationById = new LongIntHashMap(expectedSize, -1);
+            this.birthDateById = new LongIntHashMap(expectedSize, NO_BIRTH_DATE);
+        }
+
+        private void apply(UsuarioChangedEvent event) {
+            switch (event.type()) {
+                case CREATED -> {
+                    remove(event.id());
+                    add(event.id(), event.birth_date(), event.city(), event.state());
+                }
+                case UPDATED -> {
+                    if (!locationById.containsKey(event.id())) {
+                        return;
+                    }
+                    if (event.changed(UsuarioChangedEvent.Field.ADDRESS)) {
+                        int location = intern(new Location(event.state(), event.city()));
+                        count(byLocation, locations.get(locationById.put(event.id(), location)), -1);
+                        count(byLocation, locations.get(location), 1);
+                    }
+                    if (event.changed(UsuarioChangedEvent.Field.BIRTH_DATE)) {
+                        int day = epochDay(event.birth_date());
+                        count(byBirthDate, birthDateById.put(event.id(), day), -1);
+                        count(byBirthDate, day, 1);
+                    }
+                }
+                case DELETED -> remove(event.id());
+            }
+        }
+
+        private void add(long id, LocalDate birthDate, String city, String state) {
+            if (locationById.containsKey(id)) {
+                return;
+            }
+
+            int location = intern(new Location(state, city));
+            int day = epochDay(birthDate);
+            locationById.put(id, location);
+            birthDateById.put(id, day);
+            total.increment();
+            count(byLocation, locations.get(location), 1);
+            count(byBirthDate, day, 1);
+        }
+
+        private void remove(long id) {
+            if (!locationById.containsKey(id)) {
+                return;
+            }
+
+            total.decrement();
+            count(byLocation, locations.get(locationById.remove(id)), -1);
+            count(byBirthDate, birthDateById.remove(id), -1);
+        }
+
+        private int intern(Location location) {
+            return locationIndexes.computeIfAbsent(location, key -> {
+                locations.add(key);
+                return locations.size() - 1;
+            });
+        }
+
+        private Map<Location, Long> byLocation() {
+            return sums(byLocation);
+        }
+
+        private Map<Integer, Long> byBirthDate() {
+            return sums(byBirthDate);
+        }
+
+        private static <K> void count(ConcurrentMap<K, LongAdder> counters, K key, long delta) {
+            counters.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+
+        private static <K> Map<K, Long> sums(Map<K, LongAdder> counters) {
+            Map<K, Long> sums = new HashMap<>(counters.size() * 2);
+            counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package velsis.back.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import velsis.back.events.UsuarioChangedEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão da tabela de usuários em memória, incrementada após o commit de qualquer escrita
+ * Serve de ETag para as listagens sem consultar o banco. Começa no horário de inicialização
+ * para que um ETag anterior a um reinício nunca seja aceito por engano.
+ * Vale para uma única instância: escritas feitas por outra instância não alteram este valor.
+ */
+@Component
+public class UsuarioWatermark {
+
+    private final AtomicLong value = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return value.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioChanged(UsuarioChangedEvent event) {
+        value.incrementAndGet();
+    }
+}
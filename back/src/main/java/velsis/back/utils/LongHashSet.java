@@ -0,0 +1,123 @@
+package velsis.back.utils;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de longs com endereçamento aberto, sem boxing
+ * Não é thread-safe; o chamador controla a concorrência.
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long REMOVED = Long.MIN_VALUE + 1;
+
+    private long[] table;
+    private int size;
+    private int used;
+
+    public LongHashSet(int expectedSize) {
+        table = newTable(capacityFor(expectedSize));
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return true se o valor ainda não estava no conjunto
+     */
+    public boolean add(long value) {
+        checkValue(value);
+        if ((used + 1) * 4L > table.length * 3L) {
+            rehash(size * 2 >= table.length / 2 ? table.length * 2 : table.length);
+        }
+
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+        int firstRemoved = -1;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            if (table[slot] == REMOVED && firstRemoved < 0) {
+                firstRemoved = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (firstRemoved >= 0) {
+            table[firstRemoved] = value;
+        } else {
+            table[slot] = value;
+            used++;
+        }
+        size++;
+        return true;
+    }
+
+    public boolean remove(long value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        table[index] = REMOVED;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(long value) {
+        if (value == EMPTY || value == REMOVED) {
+            return -1;
+        }
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = newTable(capacity);
+        size = 0;
+        used = 0;
+        for (long value : old) {
+            if (value != EMPTY && value != REMOVED) {
+                add(value);
+            }
+        }
+    }
+
+    private static void checkValue(long value) {
+        if (value == EMPTY || value == REMOVED) {
+            throw new IllegalArgumentException("Valor reservado: " + value);
+        }
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
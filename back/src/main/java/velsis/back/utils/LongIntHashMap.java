@@ -0,0 +1,155 @@
+package velsis.back.utils;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long -> int com endereçamento aberto, sem boxing
+ * Não é thread-safe; o chamador controla a concorrência.
+ */
+public class LongIntHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long REMOVED = Long.MIN_VALUE + 1;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int used;
+
+    /**
+     * @param missingValue - valor devolvido por get quando a chave não existe
+     */
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        int capacity = capacityFor(expectedSize);
+        this.keys = newKeys(capacity);
+        this.values = new int[capacity];
+    }
+
+    public int get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? missingValue : values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return valor anterior, ou missingValue se a chave não existia
+     */
+    public int put(long key, int value) {
+        checkKey(key);
+        int index = indexOf(key);
+        if (index >= 0) {
+            int previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        if ((used + 1) * 4L > keys.length * 3L) {
+            rehash(size * 2 >= keys.length / 2 ? keys.length * 2 : keys.length);
+        }
+        insert(key, value);
+        return missingValue;
+    }
+
+    /**
+     * @return valor removido, ou missingValue se a chave não existia
+     */
+    public int remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return missingValue;
+        }
+        keys[index] = REMOVED;
+        size--;
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        used = 0;
+    }
+
+    private void insert(long key, int value) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        int firstRemoved = -1;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == REMOVED && firstRemoved < 0) {
+                firstRemoved = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (firstRemoved >= 0) {
+            slot = firstRemoved;
+        } else {
+            used++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private int indexOf(long key) {
+        if (key == EMPTY || key == REMOVED) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = newKeys(capacity);
+        values = new int[capacity];
+        size = 0;
+        used = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldKeys[i] != REMOVED) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY || key == REMOVED) {
+            throw new IllegalArgumentException("Chave reservada: " + key);
+        }
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,48 @@
+package velsis.back.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LocalCepIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resolvesCepsWrittenToTheIndexFile() throws Exception {
+        Path file = dir.resolve("ceps.idx");
+        LocalCepIndex.write(List.of(
+                new Endereco("20040002", "Rua da Assembleia", "Rio de Janeiro", "RJ"),
+                new Endereco("01001000", "Praça da Sé", "São Paulo", "SP"),
+                new Endereco("01310100", "Avenida Paulista", "São Paulo", "SP"),
+                new Endereco("69900000", null, "Rio Branco", "AC")
+        ), file);
+
+        LocalCepIndex index = new LocalCepIndex(file.toString());
+
+        assertEquals(4, index.size());
+        assertEquals(new Endereco("01001000", "Praça da Sé", "São Paulo", "SP"), index.resolve("01001000"));
+        assertEquals("Rio de Janeiro", index.resolve("20040002").localidade());
+        assertNull(index.resolve("69900000").logradouro());
+        assertSame(index.resolve("01001000").localidade(), index.resolve("01310100").localidade());
+
+        assertNull(index.resolve("99999999"));
+        assertNull(index.resolve("0100100"));
+        assertEquals(1, index.misses());
+    }
+
+    @Test
+    void disabledWithoutPath() throws Exception {
+        LocalCepIndex index = new LocalCepIndex("");
+
+        assertEquals(0, index.size());
+        assertNull(index.resolve("01001000"));
+    }
+}
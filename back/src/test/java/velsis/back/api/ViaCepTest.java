@@ -0,0 +1,113 @@
+package velsis.back.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import velsis.back.exceptions.CepServiceException;
+import velsis.back.support.ViaCepStub;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViaCepTest {
+
+    private ViaCepStub stub;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new ViaCepStub();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private ViaCep viaCep(Duration readTimeout, int maxConcurrentCalls, int failureThreshold, Duration openDuration) {
+        return new ViaCep(new ObjectMapper(), stub.baseUrl(), Duration.ofSeconds(1), readTimeout,
+                maxConcurrentCalls, failureThreshold, openDuration, false, meterRegistry);
+    }
+
+    @Test
+    void returnsAddressAndEmptyAddressForUnknownCep() {
+        ViaCep viaCep = viaCep(Duration.ofSeconds(1), 10, 3, Duration.ofSeconds(30));
+
+        Endereco endereco = viaCep.viaCep("01001000");
+        assertEquals("Cidade 01", endereco.localidade());
+        assertEquals("SP", endereco.uf());
+
+        Endereco unknown = viaCep.viaCep(ViaCepStub.UNKNOWN_CEP);
+        assertNull(unknown.localidade());
+        assertEquals(CircuitBreaker.State.CLOSED, viaCep.circuitState());
+        assertEquals(1, requests("found"));
+        assertEquals(1, requests("not_found"));
+    }
+
+    @Test
+    void failsWithinReadTimeout() {
+        ViaCep viaCep = viaCep(Duration.ofMillis(200), 10, 3, Duration.ofSeconds(30));
+        stub.latency(Duration.ofSeconds(2));
+
+        long start = System.nanoTime();
+        CepServiceException error = assertThrows(CepServiceException.class, () -> viaCep.viaCep("01001000"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertEquals(1, requests("timeout"));
+        assertTrue(causedBy(error, HttpTimeoutException.class), "a exceção mantém a causa original");
+    }
+
+
+    @Test
+    void opensCircuitAfterConsecutiveFailuresAndRecovers() throws Exception {
+        ViaCep viaCep = viaCep(Duration.ofSeconds(1), 10, 3, Duration.ofMillis(300));
+        stub.errorRate(1.0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(CepServiceException.class, () -> viaCep.viaCep("01001000"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, viaCep.circuitState());
+
+        assertThrows(CepServiceException.class, () -> viaCep.viaCep("01001000"));
+        assertEquals(3, stub.requests(), "circuito aberto não deve chamar o ViaCEP");
+        assertEquals(4, requests("error"));
+
+        stub.errorRate(0);
+        Thread.sleep(400);
+        assertEquals("Cidade 01", viaCep.viaCep("01001000").localidade());
+        assertEquals(CircuitBreaker.State.CLOSED, viaCep.circuitState());
+    }
+
+    @Test
+    void rejectsCallsAboveConcurrencyLimit() throws Exception {
+        ViaCep viaCep = viaCep(Duration.ofSeconds(2), 1, 3, Duration.ofSeconds(30));
+        stub.latency(Duration.ofMillis(500));
+
+        CompletableFuture<Endereco> inFlight = CompletableFuture.supplyAsync(() -> viaCep.viaCep("01001000"));
+        Thread.sleep(100);
+
+        assertThrows(CepServiceException.class, () -> viaCep.viaCep("02002000"));
+        assertEquals("Cidade 01", inFlight.get().localidade());
+    }
+
+    private long requests(String outcome) {
+        return meterRegistry.get("viacep.requests").tag("outcome", outcome).timer().count();
+    }
+
+    private static boolean causedBy(Throwable error, Class<? extends Throwable> type) {
+        for (Throwable cause = error.getCause(); cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,144 @@
+package velsis.back.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import velsis.back.api.ViaCep;
+import velsis.back.configurations.VirtualThreadPinningMonitor;
+import velsis.back.support.ViaCepStub;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara vazão e p99 do caminho de escrita com threads de plataforma (pool fixo, como o Tomcat)
+ * e com virtual threads, com o ViaCEP lento
+ * Cada requisição consulta um CEP diferente no stub e depois ocupa uma das conexões do pool simulado,
+ * que continua sendo o limite no modo virtual. O terceiro cenário bloqueia dentro de synchronized,
+ * como um driver JDBC antigo, e confere que o VirtualThreadPinningMonitor registra o pinning.
+ *
+ * Fora da execução padrão dos testes; executar com ./mvnw -Pbenchmark verify ou ./mvnw test -Dtest=VirtualThreadsBenchmark
+ */
+@Tag("benchmark")
+class VirtualThreadsBenchmark {
+
+    private static final int REQUESTS = 2000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int CONNECTION_POOL = 10;
+    private static final Duration VIACEP_LATENCY = Duration.ofSeconds(1);
+    private static final Duration JDBC_TIME = Duration.ofMillis(2);
+
+    private static ViaCepStub stub;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        stub = new ViaCepStub().latency(VIACEP_LATENCY);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run("platform", false, false);
+        Result virtual = run("virtual", true, false);
+
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(true, true, Duration.ofMillis(1));
+        monitor.start();
+        Result pinned;
+        try {
+            pinned = run("virtual + synchronized", true, true);
+            Thread.sleep(1500);
+        } finally {
+            monitor.stop();
+        }
+
+        System.out.println(platform);
+        System.out.println(virtual);
+        System.out.println(pinned);
+        System.out.printf("pinnings registrados: %d%n", monitor.pinnedCount());
+
+        assertEquals(REQUESTS, platform.completed());
+        assertEquals(REQUESTS, virtual.completed());
+        assertTrue(monitor.pinnedCount() > 0, "o pinning dentro de synchronized deve ser registrado");
+    }
+
+    private Result run(String mode, boolean virtualThreads, boolean synchronizedDriver) throws Exception {
+        ViaCep viaCep = new ViaCep(new ObjectMapper(), stub.baseUrl(), Duration.ofSeconds(5), Duration.ofSeconds(30),
+                REQUESTS, 1_000_000, Duration.ofSeconds(30), virtualThreads, new SimpleMeterRegistry());
+        Semaphore connections = new Semaphore(CONNECTION_POOL, true);
+        long[] latencies = new long[REQUESTS];
+
+        ExecutorService executor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        try (executor) {
+            for (int i = 0; i < REQUESTS; i++) {
+                int request = i;
+                long submitted = System.nanoTime();
+                futures.add(executor.submit(() -> {
+                    viaCep.viaCep("%08d".formatted(10_000_000 + request));
+                    write(connections, synchronizedDriver);
+                    latencies[request] = System.nanoTime() - submitted;
+                    return null;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int completed = 0;
+        for (Future<?> future : futures) {
+            future.get();
+            completed++;
+        }
+
+        Arrays.sort(latencies);
+        return new Result(mode, completed, completed / (elapsed / 1e9),
+                latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6);
+    }
+
+    /**
+     * Simula o INSERT segurando uma conexão do pool
+     */
+    private static void write(Semaphore connections, boolean synchronizedDriver) throws InterruptedException {
+        connections.acquire();
+        try {
+            if (synchronizedDriver) {
+                Object connectionLock = new Object();
+                synchronized (connectionLock) {
+                    Thread.sleep(JDBC_TIME);
+                }
+            } else {
+                Thread.sleep(JDBC_TIME);
+            }
+        } finally {
+            connections.release();
+        }
+    }
+
+    private record Result(String mode, int completed, double throughput, double p50Millis, double p99Millis) {
+
+        @Override
+        public String toString() {
+            return "%-24s %6d req  %8.1f req/s  p50 %7.1f ms  p99 %7.1f ms"
+                    .formatted(mode, completed, throughput, p50Millis, p99Millis);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package velsis.back.configurations;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.UsuarioFixtures;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Roteamento entre primário e réplicas com dois H2 em memória no lugar das réplicas
+ * A "replicação" é feita no teste copiando o primário com o comando SCRIPT do H2, o que permite
+ * observar de qual banco cada leitura veio.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "usuarios.replicas.urls=jdbc:h2:mem:replica-a;MODE=MySQL;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:replica-b;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "usuarios.replicas.read-your-writes=3s",
+        "usuarios.search.enabled=false",
+        "usuarios.document-index.enabled=false"
+})
+@Import(ApiTestConfiguration.class)
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private ReplicaRoutingDataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void readsGoToReplicasAndWritersReadTheirWrites() throws Exception {
+        List<DataSource> replicas = List.copyOf(dataSource.replicas());
+        replicas.forEach(replica -> replicate(replica, false));
+
+        HttpHeaders writer = client("writer");
+        ResponseEntity<String> created = usuarios.post(newUsuario(), writer);
+        assertEquals(201, created.getStatusCode().value());
+
+        assertEquals(0, listSize("reader"), "leitura de outro cliente vai para a réplica, ainda sem o usuário");
+        assertEquals(1, listSize("writer"), "quem escreveu lê do primário durante a janela");
+
+        replicate(replicas.getFirst(), true);
+        assertEquals(Set.of(0, 1), Set.of(listSize("reader"), listSize("reader")),
+                "as leituras alternam entre as réplicas (round-robin)");
+
+        Thread.sleep(3200);
+        assertEquals(Set.of(0, 1), Set.of(listSize("writer"), listSize("writer")),
+                "após a janela o escritor volta a ler das réplicas");
+    }
+
+    @Test
+    void replicaReadsCarryNoListEtag() throws Exception {
+        List<DataSource> replicas = List.copyOf(dataSource.replicas());
+        replicas.forEach(replica -> replicate(replica, false));
+
+        HttpHeaders writer = client("etag-writer");
+        ResponseEntity<String> created = usuarios.post(newUsuario().withName("Joao Lima"), writer);
+        assertEquals(201, created.getStatusCode().value());
+
+        ResponseEntity<String> lagging = list(client("etag-reader"));
+        assertEquals(0, objectMapper.readTree(lagging.getBody()).size(), "a réplica ainda não tem o usuário");
+        assertNull(lagging.getHeaders().getETag(), "a versão atual não pode acompanhar as linhas da réplica atrasada");
+
+        ResponseEntity<String> primary = list(writer);
+        JsonNode usuario = null;
+        for (JsonNode node : objectMapper.readTree(primary.getBody())) {
+            if ("Joao Lima".equals(node.get("name").asText())) {
+                usuario = node;
+            }
+        }
+        assertNotNull(usuario, "quem escreveu lê do primário durante a janela");
+        String etag = primary.getHeaders().getETag();
+        assertNotNull(etag, "a leitura no primário leva o ETag");
+
+        HttpHeaders revalidation = client("etag-reader");
+        revalidation.setIfNoneMatch(etag);
+        assertEquals(304, list(revalidation).getStatusCode().value(), "o ETag do primário continua válido em qualquer cliente");
+
+        ResponseEntity<String> deleted = rest.exchange("/usuarios/" + usuario.get("id").asLong(),
+                HttpMethod.DELETE, new HttpEntity<>(writer), String.class);
+        assertEquals(200, deleted.getStatusCode().value());
+    }
+
+    private ResponseEntity<String> list(HttpHeaders headers) {
+        return rest.exchange("/usuarios", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private int listSize(String client) throws IOException {
+        ResponseEntity<String> response = rest.exchange("/usuarios", HttpMethod.GET,
+                new HttpEntity<>(client(client)), String.class);
+        JsonNode body = objectMapper.readTree(response.getBody());
+        return body.size();
+    }
+
+    /**
+     * Copia o esquema (e opcionalmente os dados) do primário para a réplica
+     */
+    private void replicate(DataSource replica, boolean withData) {
+        List<String> script = new JdbcTemplate(dataSource.primary())
+                .queryForList(withData ? "SCRIPT" : "SCRIPT NODATA", String.class);
+        JdbcTemplate target = new JdbcTemplate(replica);
+        target.execute("DROP ALL OBJECTS");
+        script.stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(target::execute);
+    }
+
+    private static HttpHeaders client(String id) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(ReadYourWritesFilter.CLIENT_HEADER, id);
+        return headers;
+    }
+}
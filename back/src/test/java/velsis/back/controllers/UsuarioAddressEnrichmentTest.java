@@ -0,0 +1,143 @@
+package velsis.back.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import velsis.back.entities.AddressStatus;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.services.AddressEnrichmentWorker;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.UsuarioFixtures;
+import velsis.back.support.ViaCepStub;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Enriquecimento assíncrono do endereço: a conclusão em segundo plano muda a versão do usuário,
+ * então o GET /usuarios/{id} seguinte precisa devolver o ETag novo, aceito no If-Match
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioAddressEnrichmentTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private ViaCepStub viaCep;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private AddressEnrichmentWorker enrichmentWorker;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("usuarios.address.async-enrichment", () -> true);
+    }
+
+    @Test
+    void invalidCepRefreshesEtag() throws Exception {
+        viaCep.latency(Duration.ofMillis(300));
+        long id;
+        try {
+            id = usuarios.create(newUsuario().withZip(ViaCepStub.UNKNOWN_CEP));
+            assertEquals("\"0\"", etag(id), "ainda pendente, o GET coloca a versão 0 no cache");
+            assertEquals(AddressStatus.INVALID, awaitEnrichment(id));
+        } finally {
+            viaCep.latency(Duration.ZERO);
+        }
+
+        String etag = etag(id);
+        assertEquals("\"1\"", etag, "marcar o CEP como inválido muda a versão e descarta o cache");
+
+        ResponseEntity<String> patch = rename(id, etag, "Nome Apos Cep Invalido");
+        assertEquals(HttpStatus.OK, patch.getStatusCode(), patch.getBody());
+    }
+
+    @Test
+    void resolvedAddressChangesEtag() throws Exception {
+        viaCep.latency(Duration.ofMillis(300));
+        long id;
+        String pending;
+        try {
+            id = usuarios.create(newUsuario().withZip("03003000"));
+            pending = etag(id);
+            assertEquals(AddressStatus.RESOLVED, awaitEnrichment(id));
+        } finally {
+            viaCep.latency(Duration.ZERO);
+        }
+
+        String resolved = etag(id);
+        assertNotEquals(pending, resolved, "completar o endereço conta como alteração do usuário");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, rename(id, pending, "Nome Com Etag Pendente").getStatusCode());
+        ResponseEntity<String> patch = rename(id, resolved, "Nome Com Etag Resolvido");
+        assertEquals(HttpStatus.OK, patch.getStatusCode(), patch.getBody());
+    }
+
+    @Test
+    void retryDoesNotResubmitEnrichmentsInFlight() throws Exception {
+        viaCep.latency(Duration.ofMillis(500));
+        long id;
+        try {
+            id = usuarios.create(newUsuario().withZip("04004000"));
+            for (int i = 0; i < 5; i++) {
+                enrichmentWorker.retryPending();
+            }
+            assertEquals(1, enrichmentWorker.inFlight(), "o CEP em andamento não é reenviado");
+            assertEquals(AddressStatus.RESOLVED, awaitEnrichment(id));
+        } finally {
+            viaCep.latency(Duration.ZERO);
+        }
+
+        Thread.sleep(50);
+        assertEquals(0, enrichmentWorker.inFlight());
+    }
+
+    private ResponseEntity<String> rename(long id, String ifMatch, String name) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(ifMatch);
+        return exchange(HttpMethod.PATCH, "/usuarios/name", headers, """
+                {"id": %d, "name": "%s"}""".formatted(id, name));
+    }
+
+    private String etag(long id) {
+        ResponseEntity<String> response = rest.getForEntity("/usuarios/" + id, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getHeaders().getETag();
+    }
+
+    private AddressStatus awaitEnrichment(long id) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        AddressStatus status = usuarioRepository.findById(id).orElseThrow().getAddress_status();
+        while (status == AddressStatus.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = usuarioRepository.findById(id).orElseThrow().getAddress_status();
+        }
+        return status;
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, HttpHeaders headers, String body) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+    }
+}
@@ -0,0 +1,120 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import velsis.back.configurations.AdmissionControl;
+import velsis.back.configurations.ConcurrencyLimited.Pool;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.NewUsuario;
+import velsis.back.support.UsuarioFixtures;
+import velsis.back.support.ViaCepStub;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Controle de admissão: com o ViaCEP lento, as escritas excedentes recebem 503 e as leituras continuam respondendo
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioAdmissionControlTest {
+
+    private static final int WRITE_LIMIT = 2;
+    private static final int CONCURRENT_WRITES = 8;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private ViaCepStub viaCep;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("usuarios.admission.write.initial-limit", () -> WRITE_LIMIT);
+        registry.add("usuarios.admission.write.min-limit", () -> 1);
+        registry.add("usuarios.admission.write.max-limit", () -> WRITE_LIMIT);
+    }
+
+    @Test
+    void excessWritesAreShedWhileReadsStayAvailable() throws Exception {
+        viaCep.latency(Duration.ofMillis(500));
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_WRITES)) {
+            List<Callable<ResponseEntity<String>>> calls = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_WRITES; i++) {
+                NewUsuario usuario = newUsuario().withZip("0200000" + i);
+                calls.add(() -> usuarios.post(usuario));
+            }
+            List<Future<ResponseEntity<String>>> writes = new ArrayList<>();
+            for (Callable<ResponseEntity<String>> call : calls) {
+                writes.add(executor.submit(call));
+            }
+
+            Thread.sleep(100);
+            ResponseEntity<String> read = rest.getForEntity("/usuarios?after=0&limit=20", String.class);
+            assertEquals(HttpStatus.OK, read.getStatusCode(), "as leituras têm limite próprio");
+
+            int created = 0;
+            int shed = 0;
+            for (Future<ResponseEntity<String>> write : writes) {
+                ResponseEntity<String> response = write.get();
+                if (response.getStatusCode() == HttpStatus.CREATED) {
+                    created++;
+                    continue;
+                }
+                assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+                assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                JsonNode error = objectMapper.readTree(response.getBody());
+                assertEquals("OVERLOADED", error.get("code").asText());
+                shed++;
+            }
+
+            assertTrue(created >= 1 && created <= WRITE_LIMIT, "admitidas: " + created);
+            assertEquals(CONCURRENT_WRITES, created + shed);
+        } finally {
+            viaCep.latency(Duration.ZERO);
+        }
+
+        assertEquals(0, inFlight(Pool.WRITE), "as vagas das escritas assíncronas são liberadas ao fim da resposta");
+        assertEquals(0, inFlight(Pool.READ));
+    }
+
+    /**
+     * A resposta chega ao cliente um pouco antes do afterCompletion que libera a vaga
+     */
+    private int inFlight(Pool pool) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (admissionControl.limit(pool).inFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return admissionControl.limit(pool).inFlight();
+    }
+}
@@ -0,0 +1,140 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import velsis.back.entities.Usuario;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.UsuarioFixtures;
+import velsis.back.support.ViaCepStub;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Exclusão e alteração em lote, em blocos de 2 usuários (usuarios.bulk.chunk-size)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioBulkTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private ViaCepStub viaCep;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("usuarios.bulk.chunk-size", () -> 2);
+        registry.add("usuarios.bulk.max-ids", () -> 10);
+    }
+
+    @Test
+    void deleteByIdsReportsEachId() throws Exception {
+        List<Long> ids = create("Excluido Por Id", 3);
+        long missing = Long.MAX_VALUE;
+
+        JsonNode result = send(HttpMethod.POST, "/usuarios/bulk-delete", """
+                {"ids": [%d, %d, %d, %d, %d]}""".formatted(ids.get(0), missing, ids.get(1), ids.get(0), ids.get(2)));
+
+        assertEquals(4, result.get("total").asInt(), "ids repetidos são considerados uma vez");
+        assertEquals(3, result.get("done").asInt());
+        assertEquals(1, result.get("not_found").asInt());
+        assertEquals(missing, result.get("items").get(1).get("id").asLong());
+        assertEquals("NOT_FOUND", result.get("items").get(1).get("status").asText());
+        ids.forEach(id -> assertFalse(usuarioRepository.existsById(id)));
+
+        JsonNode search = objectMapper.readTree(rest.getForObject("/usuarios/search?q=excluido por id", String.class));
+        assertEquals(0, search.size(), "os índices em memória recebem a exclusão");
+    }
+
+    @Test
+    void deleteByFilterWalksEveryChunk() throws Exception {
+        List<Long> ids = create("Filtrado Para Excluir", 5);
+        List<Long> kept = create("Mantido Fora Do Filtro", 1);
+
+        JsonNode result = send(HttpMethod.POST, "/usuarios/bulk-delete", """
+                {"filter": {"name": "Filtrado Para"}}""");
+
+        assertEquals(5, result.get("done").asInt());
+        ids.forEach(id -> assertFalse(usuarioRepository.existsById(id)));
+        assertTrue(usuarioRepository.existsById(kept.getFirst()));
+    }
+
+    @Test
+    void patchUpdatesEveryIdWithOneCepLookup() throws Exception {
+        List<Long> ids = create("Alterado Em Lote", 3);
+        long viaCepRequests = viaCep.requests();
+
+        JsonNode result = send(HttpMethod.PATCH, "/usuarios/bulk", """
+                {"ids": [%d, %d, %d], "birth_date": "1970-07-07", "zip": "06006000"}"""
+                .formatted(ids.get(0), ids.get(1), ids.get(2)));
+
+        assertEquals(3, result.get("done").asInt());
+        assertEquals(1, viaCep.requests() - viaCepRequests, "o CEP é consultado uma única vez");
+        for (long id : ids) {
+            Usuario usuario = usuarioRepository.findById(id).orElseThrow();
+            assertEquals("06006000", usuario.getZip());
+            assertEquals("1970-07-07", usuario.getBirth_date().toString());
+            assertEquals(1, usuario.getVersion());
+        }
+    }
+
+    @Test
+    void invalidSelectionsAreRejected() {
+        assertEquals(HttpStatus.BAD_REQUEST, exchange(HttpMethod.POST, "/usuarios/bulk-delete", "{\"filter\": {}}").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, exchange(HttpMethod.POST, "/usuarios/bulk-delete", "{}").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, exchange(HttpMethod.POST, "/usuarios/bulk-delete",
+                "{\"ids\": [1,2,3,4,5,6,7,8,9,10,11]}").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, exchange(HttpMethod.PATCH, "/usuarios/bulk", "{\"ids\": [1]}").getStatusCode());
+    }
+
+    private List<Long> create(String name, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(usuarios.create(newUsuario().withName(name)));
+        }
+        return ids;
+    }
+
+    private JsonNode send(HttpMethod method, String path, String body) throws IOException {
+        ResponseEntity<String> response = exchange(method, path, body);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), response.getBody());
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+    }
+}
@@ -0,0 +1,106 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.UsuarioFixtures;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Requisições condicionais: If-None-Match nas leituras (304) e If-Match nas atualizações (412)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioConditionalRequestTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void unchangedUsuarioIsNotModified() {
+        long id = usuarios.create();
+        String etag = get("/usuarios/" + id, null).getHeaders().getETag();
+        assertEquals("\"0\"", etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, get("/usuarios/" + id, etag).getStatusCode());
+
+        rename(id, etag, "Nome Revalidado");
+        ResponseEntity<String> changed = get("/usuarios/" + id, etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode(), "a alteração invalida o ETag anterior");
+        assertEquals("\"1\"", changed.getHeaders().getETag());
+    }
+
+    @Test
+    void unchangedListIsNotModified() {
+        usuarios.create();
+        String etag = get("/usuarios?after=0&limit=20", null).getHeaders().getETag();
+        assertNotNull(etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, get("/usuarios?after=0&limit=20", etag).getStatusCode());
+
+        usuarios.create();
+        ResponseEntity<String> changed = get("/usuarios?after=0&limit=20", etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode(), "um cadastro muda a versão das listagens");
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void staleIfMatchIsRejected() throws IOException {
+        long id = usuarios.create();
+        String etag = get("/usuarios/" + id, null).getHeaders().getETag();
+        assertEquals(HttpStatus.OK, rename(id, etag, "Primeira Alteracao").getStatusCode());
+
+        ResponseEntity<String> stale = rename(id, etag, "Alteracao Concorrente");
+        assertEquals(HttpStatus.PRECONDITION_FAILED, stale.getStatusCode());
+        assertEquals("PRECONDITION_FAILED", objectMapper.readTree(stale.getBody()).get("code").asText());
+        assertEquals("Primeira Alteracao", usuarioRepository.findById(id).orElseThrow().getName());
+
+        String fresh = get("/usuarios/" + id, null).getHeaders().getETag();
+        assertEquals(HttpStatus.OK, rename(id, fresh, "Alteracao Com Etag Novo").getStatusCode());
+    }
+
+    private ResponseEntity<String> rename(long id, String ifMatch, String name) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(ifMatch);
+        return exchange(HttpMethod.PATCH, "/usuarios/name", headers, """
+                {"id": %d, "name": "%s"}""".formatted(id, name));
+    }
+
+    private ResponseEntity<String> get(String path, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, HttpHeaders headers, String body) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+    }
+}
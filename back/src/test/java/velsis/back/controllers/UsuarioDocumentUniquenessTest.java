@@ -0,0 +1,95 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.NewUsuario;
+import velsis.back.support.UsuarioFixtures;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Unicidade do document em todos os caminhos de escrita, com o índice em memória acompanhando
+ * as alterações e exclusões: o document antigo fica livre e o novo passa a ser recusado
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioDocumentUniquenessTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void updatedDocumentMovesInTheIndex() throws IOException {
+        String original = NewUsuario.nextDocument();
+        String other = NewUsuario.nextDocument();
+        String updated = NewUsuario.nextDocument();
+        long id = usuarios.create(newUsuario().withDocument(original));
+        long otherId = usuarios.create(newUsuario().withDocument(other));
+
+        assertConflict(exchange(HttpMethod.PATCH, "/usuarios/document", MediaType.APPLICATION_JSON, """
+                {"id": %d, "document": "%s"}""".formatted(otherId, original)));
+
+        ResponseEntity<String> patch = exchange(HttpMethod.PATCH, "/usuarios/document", MediaType.APPLICATION_JSON, """
+                {"id": %d, "document": "%s"}""".formatted(id, updated));
+        assertEquals(HttpStatus.OK, patch.getStatusCode(), patch.getBody());
+
+        assertConflict(usuarios.post(newUsuario().withDocument(updated)));
+        assertConflict(exchange(HttpMethod.PATCH, "/usuarios/" + otherId, MediaType.valueOf("application/merge-patch+json"), """
+                {"document": "%s"}""".formatted(updated)));
+        assertConflict(exchange(HttpMethod.PUT, "/usuarios", MediaType.APPLICATION_JSON, """
+                {"id": %d, "name": "Outro Usuario", "birth_date": "1990-05-10", "address_number": 10,
+                 "document": "%s", "zip": "01001000"}""".formatted(otherId, updated)));
+        assertEquals(other, usuarioRepository.findById(otherId).orElseThrow().getDocument());
+
+        assertEquals(HttpStatus.CREATED, usuarios.post(newUsuario().withDocument(original)).getStatusCode(),
+                "o document anterior fica livre");
+    }
+
+    @Test
+    void deletedDocumentCanBeReused() throws IOException {
+        String document = NewUsuario.nextDocument();
+        long id = usuarios.create(newUsuario().withDocument(document));
+
+        ResponseEntity<String> delete = exchange(HttpMethod.DELETE, "/usuarios/" + id, MediaType.APPLICATION_JSON, null);
+        assertEquals(HttpStatus.OK, delete.getStatusCode(), delete.getBody());
+
+        assertEquals(HttpStatus.CREATED, usuarios.post(newUsuario().withDocument(document)).getStatusCode(),
+                "a exclusão libera o document");
+        assertConflict(usuarios.post(newUsuario().withDocument(document)));
+    }
+
+    private void assertConflict(ResponseEntity<String> response) throws IOException {
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode(), response.getBody());
+        assertEquals("DOCUMENT_EXISTS", objectMapper.readTree(response.getBody()).get("code").asText());
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, MediaType contentType, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+    }
+}
@@ -0,0 +1,111 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.NewUsuario;
+import velsis.back.support.UsuarioFixtures;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Cache da tela de edição: depois de cada escrita pela API, o GET /usuarios/{id} devolve os dados e a versão novos
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioEditCacheTest {
+
+    private static final MediaType MERGE_PATCH = MediaType.valueOf("application/merge-patch+json");
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void everyWriteRefreshesTheEditView() throws IOException {
+        String document = NewUsuario.nextDocument();
+        long id = usuarios.create(newUsuario().withDocument(document));
+        assertEquals(0, find(id).get("version").asLong());
+
+        write(HttpMethod.PATCH, "/usuarios/name", MediaType.APPLICATION_JSON, """
+                {"id": %d, "name": "Nome Alterado"}""".formatted(id));
+        JsonNode usuario = find(id);
+        assertEquals(1, usuario.get("version").asLong());
+        assertEquals("Nome Alterado", usuario.get("name").asText());
+
+        write(HttpMethod.PATCH, "/usuarios/birthDate", MediaType.APPLICATION_JSON, """
+                {"id": %d, "birth_date": "1981-01-01"}""".formatted(id));
+        usuario = find(id);
+        assertEquals(2, usuario.get("version").asLong());
+        assertEquals("1981-01-01", usuario.get("birth_date").asText());
+
+        write(HttpMethod.PATCH, "/usuarios/" + id, MERGE_PATCH, """
+                {"address_number": 77}""");
+        usuario = find(id);
+        assertEquals(3, usuario.get("version").asLong());
+        assertEquals(77, usuario.get("address_number").asInt());
+
+        write(HttpMethod.PUT, "/usuarios", MediaType.APPLICATION_JSON, """
+                {"id": %d, "name": "Nome Do Put", "birth_date": "1982-02-02", "address_number": 88,
+                 "document": "%s", "zip": "02002000"}""".formatted(id, document));
+        usuario = find(id);
+        assertEquals(4, usuario.get("version").asLong());
+        assertEquals("Nome Do Put", usuario.get("name").asText());
+        assertEquals("02002000", usuario.get("zip").asText());
+
+        write(HttpMethod.PATCH, "/usuarios/bulk", MediaType.APPLICATION_JSON, """
+                {"ids": [%d], "name": "Nome Em Lote"}""".formatted(id));
+        usuario = find(id);
+        assertEquals(5, usuario.get("version").asLong());
+        assertEquals("Nome Em Lote", usuario.get("name").asText());
+    }
+
+    @Test
+    void deletedUsuarioLeavesTheEditView() throws IOException {
+        long id = usuarios.create();
+        assertEquals(0, find(id).get("version").asLong());
+
+        write(HttpMethod.DELETE, "/usuarios/" + id, MediaType.APPLICATION_JSON, null);
+
+        ResponseEntity<String> response = rest.getForEntity("/usuarios/" + id, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, objectMapper.readTree(response.getBody()).size(), "o usuário excluído não fica no cache");
+    }
+
+    /**
+     * Lê a tela de edição e confere que o ETag acompanha a versão do corpo
+     */
+    private JsonNode find(long id) throws IOException {
+        ResponseEntity<String> response = rest.getForEntity("/usuarios/" + id, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), response.getBody());
+        JsonNode usuario = objectMapper.readTree(response.getBody()).get(0);
+        assertEquals("\"" + usuario.get("version").asLong() + "\"", response.getHeaders().getETag());
+        return usuario;
+    }
+
+    private void write(HttpMethod method, String path, MediaType contentType, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        ResponseEntity<String> response = rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), method + " " + path + ": " + response.getBody());
+    }
+}
@@ -0,0 +1,155 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.UsuarioFixtures;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Filtros combinados e paginação por keyset em cada campo de ordenação, sobre usuários criados pela API
+ * O ViaCepStub devolve a cidade "Cidade " + os dois primeiros dígitos do CEP, sempre em SP
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioFilterTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void filtersAreCombined() throws IOException {
+        long match1 = create("Filtro Ana", "1985-02-01", "41000000");
+        create("Filtro Bruno", "1975-02-01", "41000000");
+        create("Filtro Carla", "1985-02-01", "42000000");
+        long match2 = create("Filtro Daniel", "1989-12-31", "41000000");
+        create("Outro Nome", "1985-02-01", "41000000");
+
+        String query = "name=Filtro&city=Cidade 41&state=SP&birth_from=1980-01-01&birth_to=1989-12-31";
+        assertEquals(List.of(match1, match2), ids(read("/usuarios?" + query)));
+
+        JsonNode page = read("/usuarios?limit=1&total=true&" + query);
+        assertEquals(2, page.get("total").asLong(), "o total respeita os mesmos filtros");
+        assertEquals(List.of(match1), ids(page.get("content")));
+    }
+
+    @Test
+    void keysetPagesFollowEverySortField() throws IOException {
+        List<Row> rows = new ArrayList<>();
+        rows.add(row("Pagina Carla", "1990-03-03", "43000000"));
+        rows.add(row("Pagina Ana", "1980-01-01", "41000000"));
+        rows.add(row("Pagina Bruno", "1990-03-03", "42000000"));
+        rows.add(row("Pagina Ana", "1970-07-07", "43000000"));
+        rows.add(row("Pagina Edu", "1985-05-05", "41000000"));
+
+        assertOrder(rows, "name", Row::name);
+        assertOrder(rows, "city", Row::city);
+        assertOrder(rows, "birth_date", Row::birthDate);
+        assertOrder(rows, "id", Row::id);
+    }
+
+    @Test
+    void nextPageDoesNotRereadTheBoundaryUsuario() throws IOException {
+        long ana = create("Limite Ana", "1980-01-01", "41000000");
+        long bia = create("Limite Bia", "1980-01-01", "41000000");
+        long caio = create("Limite Caio", "1980-01-01", "41000000");
+        long davi = create("Limite Davi", "1980-01-01", "41000000");
+
+        JsonNode first = read("/usuarios?name=Limite&limit=2&sort=name");
+        assertEquals(List.of(ana, bia), ids(first.get("content")));
+        String next = "/usuarios?name=Limite&limit=2&sort=name&after=" + first.get("next_cursor").asText();
+
+        write(HttpMethod.PATCH, "/usuarios/name", """
+                {"id": %d, "name": "Limite Zeca"}""".formatted(bia));
+        assertEquals(List.of(caio, davi), ids(read(next).get("content")), "o usuário renomeado não move o cursor");
+
+        write(HttpMethod.DELETE, "/usuarios/" + bia, null);
+        assertEquals(List.of(caio, davi), ids(read(next).get("content")), "o usuário excluído não invalida o cursor");
+
+        ResponseEntity<String> otherSort = rest.getForEntity(next.replace("sort=name", "sort=city"), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, otherSort.getStatusCode(), otherSort.getBody());
+        assertEquals("INVALID_CURSOR", objectMapper.readTree(otherSort.getBody()).get("code").asText());
+    }
+
+    /**
+     * Percorre as páginas de 2 em 2 pelo next_cursor, nas duas direções, e compara com a ordem esperada
+     * (campo de ordenação e id como desempate)
+     */
+    private <T extends Comparable<T>> void assertOrder(List<Row> rows, String sort, Function<Row, T> field) throws IOException {
+        Comparator<Row> ascending = Comparator.comparing(field).thenComparing(Row::id);
+        for (String direction : List.of("asc", "desc")) {
+            List<Long> expected = rows.stream()
+                    .sorted(direction.equals("asc") ? ascending : ascending.reversed())
+                    .map(Row::id)
+                    .toList();
+
+            List<Long> paged = new ArrayList<>();
+            String after = "";
+            do {
+                JsonNode page = read("/usuarios?name=Pagina&limit=2&sort=%s&direction=%s&after=%s"
+                        .formatted(sort, direction, after));
+                paged.addAll(ids(page.get("content")));
+                after = page.get("next_cursor").isNull() ? null : page.get("next_cursor").asText();
+            } while (after != null);
+
+            assertEquals(expected, paged, sort + " " + direction);
+        }
+    }
+
+    private Row row(String name, String birthDate, String zip) {
+        long id = create(name, birthDate, zip);
+        return new Row(id, name, LocalDate.parse(birthDate), "Cidade " + zip.substring(0, 2));
+    }
+
+    private void write(HttpMethod method, String path, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), method + " " + path + ": " + response.getBody());
+    }
+
+    private long create(String name, String birthDate, String zip) {
+        return usuarios.create(newUsuario().withName(name).withBirthDate(birthDate).withZip(zip));
+    }
+
+    private JsonNode read(String path) throws IOException {
+        ResponseEntity<String> response = rest.getForEntity(path, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), response.getBody());
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private static List<Long> ids(JsonNode usuarios) {
+        List<Long> ids = new ArrayList<>();
+        usuarios.forEach(usuario -> ids.add(usuario.get("id").asLong()));
+        return ids;
+    }
+
+    private record Row(Long id, String name, LocalDate birthDate, String city) {
+    }
+}
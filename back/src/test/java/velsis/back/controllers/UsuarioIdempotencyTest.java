@@ -0,0 +1,193 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import velsis.back.repositories.IdempotencyKeyRepository;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.services.IdempotencyService;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.NewUsuario;
+import velsis.back.support.UsuarioFixtures;
+import velsis.back.support.ViaCepStub;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Idempotency-Key nas escritas do UsuarioController
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioIdempotencyTest {
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private ViaCepStub viaCep;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void retriedPostIsReplayedWithoutRunningAgain() {
+        NewUsuario body = newUsuario().withDocument("40000000001").withZip("01310100");
+        long viaCepRequests = viaCep.requests();
+
+        ResponseEntity<String> first = post(body, "retry-1");
+        ResponseEntity<String> retry = post(body, "retry-1");
+
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED));
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode(), "a repetição não deve virar 409 de documento existente");
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED));
+        assertEquals(1, viaCep.requests() - viaCepRequests, "o ViaCEP é consultado só na primeira execução");
+        assertEquals(1, countByDocument("40000000001"));
+
+        ResponseEntity<String> withoutKey = post(body, null);
+        assertEquals(HttpStatus.CONFLICT, withoutKey.getStatusCode());
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsRejected() {
+        assertEquals(HttpStatus.CREATED, post(newUsuario().withDocument("40000000002"), "reuse-1").getStatusCode());
+
+        ResponseEntity<String> reused = post(newUsuario().withDocument("40000000003"), "reuse-1");
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(0, countByDocument("40000000003"));
+    }
+
+    @Test
+    void failedExecutionIsNotStored() {
+        NewUsuario body = newUsuario().withDocument("40000000004").withZip(ViaCepStub.UNKNOWN_CEP);
+        assertEquals(HttpStatus.BAD_REQUEST, post(body, "failed-1").getStatusCode());
+
+        ResponseEntity<String> retry = post(body, "failed-1");
+        assertEquals(HttpStatus.BAD_REQUEST, retry.getStatusCode());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED), "a repetição executa de novo");
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        viaCep.latency(Duration.ofMillis(300));
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            NewUsuario body = newUsuario().withDocument("40000000005").withZip("04538132");
+            List<Callable<ResponseEntity<String>>> calls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                calls.add(() -> post(body, "concurrent-1"));
+            }
+
+            int replayed = 0;
+            for (Future<ResponseEntity<String>> response : executor.invokeAll(calls)) {
+                assertEquals(HttpStatus.CREATED, response.get().getStatusCode());
+                if (response.get().getHeaders().containsKey(IdempotencyService.REPLAYED)) {
+                    replayed++;
+                }
+            }
+            assertEquals(3, replayed);
+            assertEquals(1, countByDocument("40000000005"));
+        } finally {
+            viaCep.latency(Duration.ZERO);
+        }
+    }
+
+    /**
+     * Duas instâncias com usuarios.idempotency.persistent=true compartilhando a tabela idempotency_key
+     */
+    @Test
+    void persistentKeysAreSharedBetweenInstances() {
+        IdempotencyService node1 = persistentNode();
+        IdempotencyService node2 = persistentNode();
+        AtomicInteger executions = new AtomicInteger();
+
+        ResponseEntity<Void> first = node1.execute("shared-1", "DELETE /usuarios/{id}", () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.OK);
+        }, 42L);
+        ResponseEntity<Void> replayed = node2.execute("shared-1", "DELETE /usuarios/{id}", () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.OK);
+        }, 42L);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.OK, replayed.getStatusCode());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED));
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * A repetição em outra instância espera a primeira execução sem prender a thread que a chamou
+     */
+    @Test
+    void persistentRetryWaitsWithoutBlocking() throws Exception {
+        IdempotencyService node1 = persistentNode();
+        IdempotencyService node2 = persistentNode();
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<ResponseEntity<Void>> slowWrite = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<Void>> first = node1.executeAsync("shared-2", "POST /usuarios", () -> {
+            executions.incrementAndGet();
+            return slowWrite;
+        }, "body");
+
+        long start = System.nanoTime();
+        CompletableFuture<ResponseEntity<Void>> retry = node2.executeAsync("shared-2", "POST /usuarios", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.CREATED));
+        }, "body");
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos(), "executeAsync retorna sem esperar");
+        assertFalse(retry.isDone(), "a primeira execução ainda não terminou");
+
+        slowWrite.complete(new ResponseEntity<>(HttpStatus.CREATED));
+        ResponseEntity<Void> replayed = retry.get(5, TimeUnit.SECONDS);
+
+        assertEquals(HttpStatus.CREATED, first.join().getStatusCode());
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED));
+        assertEquals(1, executions.get());
+    }
+
+    private IdempotencyService persistentNode() {
+        return new IdempotencyService(idempotencyKeyRepository, objectMapper, 100, Duration.ofHours(1),
+                Duration.ofSeconds(5), true);
+    }
+
+    private ResponseEntity<String> post(NewUsuario usuario, String idempotencyKey) {
+        HttpHeaders headers = new HttpHeaders();
+        if (idempotencyKey != null) {
+            headers.set(IdempotencyService.IDEMPOTENCY_KEY, idempotencyKey);
+        }
+        return usuarios.post(usuario, headers);
+    }
+
+    private long countByDocument(String document) {
+        return usuarioRepository.findAll().stream().filter(u -> document.equals(u.getDocument())).count();
+    }
+}
@@ -0,0 +1,78 @@
+package velsis.back.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import velsis.back.entities.IdempotencyKey;
+import velsis.back.repositories.IdempotencyKeyRepository;
+import velsis.back.repositories.UsuarioRepository;
+import velsis.back.services.IdempotencyService;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.NewUsuario;
+import velsis.back.support.UsuarioFixtures;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Idempotency-Key com usuarios.idempotency.persistent=true, passando pelo controller
+ * (open-in-view ativo, então a requisição compartilha o EntityManager com as consultas da reserva)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "usuarios.idempotency.persistent=true")
+@Import(ApiTestConfiguration.class)
+class UsuarioPersistentIdempotencyTest {
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Test
+    void expiredKeyIsClaimedAgain() {
+        String key = "expired-1";
+        String id = sha256(key);
+        idempotencyKeyRepository.save(new IdempotencyKey(id, sha256("outra requisição"), 201,
+                Instant.now().minusSeconds(60)));
+
+        NewUsuario usuario = newUsuario();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdempotencyService.IDEMPOTENCY_KEY, key);
+        ResponseEntity<String> response = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> usuarios.post(usuario, headers), "a chave expirada não pode prender a requisição");
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode(), response.getBody());
+        assertNull(response.getHeaders().getFirst(IdempotencyService.REPLAYED), "a chave expirada não é repetida");
+        assertTrue(usuarioRepository.existsByDocument(usuario.document()));
+
+        IdempotencyKey stored = idempotencyKeyRepository.findById(id).orElseThrow();
+        assertEquals(201, stored.getStatus());
+        assertTrue(stored.getExpires_at().isAfter(Instant.now()), "a chave volta a valer por mais um ttl");
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import velsis.back.dtos.UsuarioDTO;
+import velsis.back.entities.AddressStatus;
+import velsis.back.entities.Usuario;
+import velsis.back.repositories.UsuarioRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Negociação dos formatos binários (CBOR e Smile) e compressão gzip da listagem e da exportação
+ * Usa o HttpClient do JDK, que não descompacta a resposta sozinho, para ver o corpo como enviado.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UsuarioResponseFormatTest {
+
+    private static final int USUARIOS = 200;
+    private static final TypeReference<List<UsuarioDTO>> LIST = new TypeReference<>() {};
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void createUsuarios() {
+        if (usuarioRepository.count() > 0) {
+            return;
+        }
+
+        List<Usuario> usuarios = new ArrayList<>(USUARIOS);
+        for (int i = 0; i < USUARIOS; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setName("Usuário " + i);
+            usuario.setBirth_date(LocalDate.of(1980, 1, 1).plusDays(i * 37L));
+            usuario.setDocument(String.valueOf(30_000_000_000L + i));
+            usuario.setZip("01001000");
+            usuario.setAddress_number(i);
+            usuario.setAddress_line("Praça da Sé");
+            usuario.setCity("São Paulo");
+            usuario.setState("SP");
+            usuario.setAddress_status(AddressStatus.RESOLVED);
+            usuario.setCreated_at(LocalDate.now());
+            usuarios.add(usuario);
+        }
+        usuarioRepository.saveAll(usuarios);
+    }
+
+    @Test
+    void listKeepsJsonByDefaultAndNegotiatesBinaryFormats() throws Exception {
+        HttpResponse<byte[]> json = get("/usuarios", "application/json", null);
+        HttpResponse<byte[]> cbor = get("/usuarios", "application/cbor", null);
+        HttpResponse<byte[]> smile = get("/usuarios", "application/x-jackson-smile", null);
+        HttpResponse<byte[]> any = get("/usuarios", "*/*", null);
+
+        assertEquals("application/json", contentType(any));
+        assertEquals("application/cbor", contentType(cbor));
+        assertEquals("application/x-jackson-smile", contentType(smile));
+
+        List<UsuarioDTO> expected = objectMapper.readValue(json.body(), LIST);
+        assertEquals(USUARIOS, expected.size());
+        assertEquals(expected, objectMapper.copyWith(new CBORFactory()).readValue(cbor.body(), LIST));
+        assertEquals(expected, objectMapper.copyWith(new SmileFactory()).readValue(smile.body(), LIST));
+        assertTrue(cbor.body().length < json.body().length, "CBOR deveria ser menor que o JSON");
+        assertTrue(smile.body().length < json.body().length, "Smile deveria ser menor que o JSON");
+    }
+
+    @Test
+    void largeResponsesAreGzippedAndSmallOnesAreNot() throws Exception {
+        HttpResponse<byte[]> plain = get("/usuarios", "application/json", null);
+        HttpResponse<byte[]> gzipped = get("/usuarios", "application/json", "gzip");
+
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+        assertArrayEquals(plain.body(), gunzip(gzipped.body()));
+        assertTrue(gzipped.body().length < plain.body().length / 4, "a listagem deveria comprimir bem");
+
+        HttpResponse<byte[]> small = get("/usuarios?limit=1", "application/json", "gzip");
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty(), "resposta pequena não é comprimida");
+
+        HttpRequest conditional = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/usuarios"))
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", gzipped.headers().firstValue("ETag").orElseThrow())
+                .build();
+        assertEquals(304, http.send(conditional, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @Test
+    void exportFollowsAcceptWhenFormatIsOmitted() throws Exception {
+        HttpResponse<byte[]> smile = get("/usuarios/export", "application/x-jackson-smile", "gzip");
+
+        assertEquals("application/x-jackson-smile", contentType(smile));
+        assertEquals("gzip", smile.headers().firstValue("Content-Encoding").orElse(null));
+        try (MappingIterator<UsuarioDTO> usuarios = objectMapper.copyWith(new SmileFactory())
+                .readerFor(UsuarioDTO.class)
+                .readValues(gunzip(smile.body()))) {
+            assertEquals(USUARIOS, usuarios.readAll().size());
+        }
+
+        HttpResponse<byte[]> cbor = get("/usuarios/export?format=cbor", "*/*", null);
+        assertEquals("application/cbor-seq", contentType(cbor));
+        try (MappingIterator<UsuarioDTO> usuarios = objectMapper.copyWith(new CBORFactory())
+                .readerFor(UsuarioDTO.class)
+                .readValues(cbor.body())) {
+            assertEquals(USUARIOS, usuarios.readAll().size());
+        }
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode(), path + " " + accept);
+        return response;
+    }
+
+    private static String contentType(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type").orElse("").split(";")[0];
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
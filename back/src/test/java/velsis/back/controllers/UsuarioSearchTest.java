@@ -0,0 +1,93 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.UsuarioFixtures;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Busca por nome (GET /usuarios/search) acompanhando as escritas feitas pela API
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioSearchTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void renamedUsuarioIsFoundByTheNewName() throws IOException {
+        long id = usuarios.create(newUsuario().withName("Heloisa Quintanilha"));
+        assertTrue(search("quintanilha").contains(id));
+
+        ResponseEntity<String> rename = exchange(HttpMethod.PATCH, "/usuarios/name", MediaType.APPLICATION_JSON, """
+                {"id": %d, "name": "Heloisa Bittencourt"}""".formatted(id));
+        assertEquals(HttpStatus.OK, rename.getStatusCode(), rename.getBody());
+
+        assertFalse(search("quintanilha").contains(id), "o nome antigo sai do índice");
+        assertTrue(search("bittencourt").contains(id));
+
+        ResponseEntity<String> patch = exchange(HttpMethod.PATCH, "/usuarios/" + id, MediaType.valueOf("application/merge-patch+json"), """
+                {"name": "Heloisa Vasconcellos"}""");
+        assertEquals(HttpStatus.OK, patch.getStatusCode(), patch.getBody());
+
+        assertFalse(search("bittencourt").contains(id));
+        assertTrue(search("vasconcelos").contains(id), "a busca tolera pequenas diferenças de grafia");
+    }
+
+    @Test
+    void deletedUsuarioIsNoLongerFound() throws IOException {
+        long id = usuarios.create(newUsuario().withName("Teodoro Albuquerque"));
+        long kept = usuarios.create(newUsuario().withName("Tereza Albuquerque"));
+        assertTrue(search("albuquerque").containsAll(List.of(id, kept)));
+
+        ResponseEntity<String> delete = exchange(HttpMethod.DELETE, "/usuarios/" + id, MediaType.APPLICATION_JSON, null);
+        assertEquals(HttpStatus.OK, delete.getStatusCode(), delete.getBody());
+
+        List<Long> found = search("albuquerque");
+        assertFalse(found.contains(id), "o usuário excluído sai do índice");
+        assertTrue(found.contains(kept));
+    }
+
+    private List<Long> search(String q) throws IOException {
+        ResponseEntity<String> response = rest.getForEntity("/usuarios/search?q={q}&limit=50", String.class, q);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), response.getBody());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode usuario : objectMapper.readTree(response.getBody())) {
+            ids.add(usuario.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, MediaType contentType, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+    }
+}
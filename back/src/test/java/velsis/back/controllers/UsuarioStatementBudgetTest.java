@@ -0,0 +1,269 @@
+package velsis.back.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import velsis.back.services.DocumentIndex;
+import velsis.back.services.IdempotencyService;
+import velsis.back.services.NameSearchIndex;
+import velsis.back.services.UsuarioStats;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.NewUsuario;
+import velsis.back.support.SqlStatementCounter;
+import velsis.back.support.SqlStatementCounter.Budget;
+import velsis.back.support.UsuarioFixtures;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Orçamento de comandos SQL por endpoint do UsuarioController
+ * Cada teste cadastra os dados necessários, zera o contador e faz uma única chamada HTTP; qualquer ida ao banco
+ * a mais (ou a menos) falha com a lista dos comandos executados. Ao reduzir um orçamento, atualize o valor aqui.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import({SqlStatementCounter.class, ApiTestConfiguration.class})
+class UsuarioStatementBudgetTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private SqlStatementCounter sql;
+
+    @Autowired
+    private DocumentIndex documentIndex;
+
+    @Autowired
+    private NameSearchIndex nameSearchIndex;
+
+    @Autowired
+    private UsuarioStats usuarioStats;
+
+    @BeforeEach
+    void waitForIndexes() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!indexesReady() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(indexesReady(), "índices em memória não carregaram");
+    }
+
+    private boolean indexesReady() {
+        return documentIndex.isReady() && nameSearchIndex.isReady() && usuarioStats.isReady();
+    }
+
+    @Test
+    void createUsuario() {
+        NewUsuario usuario = newUsuario();
+
+        measure("POST /usuarios", new Budget(0, 1, 0, 0), () -> usuarios.post(usuario));
+    }
+
+    @Test
+    void retriedCreateUsuario() {
+        NewUsuario usuario = newUsuario();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdempotencyService.IDEMPOTENCY_KEY, "budget-" + usuario.document());
+        assertEquals(201, usuarios.post(usuario, headers).getStatusCode().value());
+
+        measure("POST /usuarios (Idempotency-Key repetida)", Budget.none(), () -> usuarios.post(usuario, headers), 201);
+    }
+
+    @Test
+    void importUsuarios() {
+        StringBuilder csv = new StringBuilder("name,birth_date,document,zip,address_number\n");
+        for (int i = 0; i < 50; i++) {
+            csv.append("Importado %d,1985-03-0%d,%s,0100%04d,%d%n".formatted(i, 1 + i % 9, NewUsuario.nextDocument(), i, i));
+        }
+
+        measure("POST /usuarios/batch (50 linhas)", new Budget(0, 1, 0, 0),
+                () -> exchange(HttpMethod.POST, "/usuarios/batch", MediaType.parseMediaType("text/csv"), csv.toString()));
+    }
+
+    @Test
+    void findAllUsuarios() {
+        usuarios.create();
+
+        measure("GET /usuarios", new Budget(1, 0, 0, 0), () -> get("/usuarios?state=SP&sort=name"));
+    }
+
+    @Test
+    void findUsuariosPage() {
+        usuarios.create();
+
+        measure("GET /usuarios?limit", new Budget(1, 0, 0, 0), () -> get("/usuarios?after=0&limit=20"));
+        measure("GET /usuarios?limit&total", new Budget(2, 0, 0, 0), () -> get("/usuarios?after=0&limit=20&total=true"));
+    }
+
+    @Test
+    void listNotModified() {
+        usuarios.create();
+        String etag = get("/usuarios?limit=20").getHeaders().getETag();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        measure("GET /usuarios?limit (If-None-Match)", Budget.none(),
+                () -> rest.exchange("/usuarios?limit=20", HttpMethod.GET, new HttpEntity<>(headers), String.class), 304);
+    }
+
+    @Test
+    void searchUsuarios() {
+        usuarios.create();
+
+        measure("GET /usuarios/search", Budget.none(), () -> get("/usuarios/search?q=souza"));
+    }
+
+    @Test
+    void findUsuarioStats() {
+        usuarios.create();
+
+        measure("GET /usuarios/stats", Budget.none(), () -> get("/usuarios/stats"));
+    }
+
+    @Test
+    void exportUsuarios() {
+        usuarios.create();
+
+        measure("GET /usuarios/export", new Budget(1, 0, 0, 0), () -> get("/usuarios/export?format=csv"));
+    }
+
+    @Test
+    void findUsuarioForUpdate() {
+        long id = usuarios.create();
+
+        measure("GET /usuarios/{id}", new Budget(1, 0, 0, 0), () -> get("/usuarios/" + id));
+        measure("GET /usuarios/{id} (cache)", Budget.none(), () -> get("/usuarios/" + id));
+    }
+
+    @Test
+    void deleteUsuario() {
+        long id = usuarios.create();
+
+        measure("DELETE /usuarios/{id}", new Budget(1, 0, 0, 1), () -> exchange(HttpMethod.DELETE, "/usuarios/" + id, null, null));
+    }
+
+    @Test
+    void deleteUsuarios() {
+        long first = usuarios.create();
+        long second = usuarios.create();
+
+        measure("POST /usuarios/bulk-delete (3 ids)", new Budget(1, 0, 0, 1), () -> exchange(HttpMethod.POST,
+                "/usuarios/bulk-delete", MediaType.APPLICATION_JSON, """
+                        {"ids": [%d, %d, %d]}""".formatted(first, second, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void patchUsuarios() {
+        long first = usuarios.create();
+        long second = usuarios.create();
+
+        measure("PATCH /usuarios/bulk (2 ids)", new Budget(1, 0, 1, 0), () -> exchange(HttpMethod.PATCH, "/usuarios/bulk",
+                MediaType.APPLICATION_JSON, """
+                        {"ids": [%d, %d], "name": "Maria Lote", "zip": "05005000"}""".formatted(first, second)));
+    }
+
+    @Test
+    void updateName() {
+        long id = usuarios.create();
+
+        measure("PATCH /usuarios/name", new Budget(0, 0, 1, 0), () -> exchange(HttpMethod.PATCH, "/usuarios/name",
+                MediaType.APPLICATION_JSON, """
+                        {"id": %d, "name": "Maria Alterada"}""".formatted(id)));
+    }
+
+    @Test
+    void updateBirthDate() {
+        long id = usuarios.create();
+
+        measure("PATCH /usuarios/birthDate", new Budget(0, 0, 1, 0), () -> exchange(HttpMethod.PATCH, "/usuarios/birthDate",
+                MediaType.APPLICATION_JSON, """
+                        {"id": %d, "birth_date": "1980-01-01"}""".formatted(id)));
+    }
+
+    @Test
+    void updateAddress() {
+        long id = usuarios.create();
+
+        measure("PATCH /usuarios/address", new Budget(0, 0, 1, 0), () -> exchange(HttpMethod.PATCH, "/usuarios/address",
+                MediaType.APPLICATION_JSON, """
+                        {"id": %d, "zip": "02002000", "address_number": 20}""".formatted(id)));
+    }
+
+    @Test
+    void updateDocument() {
+        long id = usuarios.create();
+        String document = NewUsuario.nextDocument();
+
+        measure("PATCH /usuarios/document", new Budget(0, 0, 1, 0), () -> exchange(HttpMethod.PATCH, "/usuarios/document",
+                MediaType.APPLICATION_JSON, """
+                        {"id": %d, "document": "%s"}""".formatted(id, document)));
+    }
+
+    @Test
+    void patchUsuario() {
+        long id = usuarios.create();
+
+        measure("PATCH /usuarios/{id}", new Budget(0, 0, 1, 0), () -> exchange(HttpMethod.PATCH, "/usuarios/" + id,
+                MediaType.parseMediaType("application/merge-patch+json"), """
+                        {"name": "Maria Patch", "zip": "03003000"}"""));
+    }
+
+    @Test
+    void updateUsuario() {
+        long id = usuarios.create();
+        String document = NewUsuario.nextDocument();
+
+        measure("PUT /usuarios", new Budget(1, 0, 1, 0), () -> exchange(HttpMethod.PUT, "/usuarios",
+                MediaType.APPLICATION_JSON, """
+                        {"id": %d, "name": "Maria Completa", "birth_date": "1991-02-03", "address_number": 30,
+                         "document": "%s", "zip": "04004000"}""".formatted(id, document)));
+    }
+
+    private void measure(String call, Budget budget, Supplier<ResponseEntity<String>> request) {
+        measure(call, budget, request, 0);
+    }
+
+    /**
+     * Executa a chamada e confere o status (2xx, ou o informado) e o orçamento de SQL
+     */
+    private void measure(String call, Budget budget, Supplier<ResponseEntity<String>> request,
+                         int expectedStatus) {
+        sql.reset();
+        ResponseEntity<String> response = request.get();
+        if (expectedStatus == 0) {
+            assertTrue(response.getStatusCode().is2xxSuccessful(), call + " respondeu " + response.getStatusCode()
+                    + ": " + response.getBody());
+        } else {
+            assertEquals(expectedStatus, response.getStatusCode().value(), call);
+        }
+        sql.assertBudget(call, budget);
+    }
+
+    private ResponseEntity<String> get(String path) {
+        return rest.getForEntity(path, String.class);
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, MediaType contentType, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (contentType != null) {
+            headers.setContentType(contentType);
+        }
+        return rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+    }
+}
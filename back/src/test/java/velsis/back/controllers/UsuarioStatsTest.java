@@ -0,0 +1,135 @@
+package velsis.back.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import velsis.back.services.UsuarioStats;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.UsuarioFixtures;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static velsis.back.support.NewUsuario.newUsuario;
+
+/**
+ * Estatísticas (GET /usuarios/stats) acompanhando as escritas feitas pela API, já com os contadores em memória
+ * O ViaCepStub devolve a cidade "Cidade " + os dois primeiros dígitos do CEP, sempre em SP
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioStatsTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UsuarioFixtures usuarios;
+
+    @Autowired
+    private UsuarioStats usuarioStats;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void awaitCounters() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!usuarioStats.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(usuarioStats.isReady(), "contadores em memória carregados");
+    }
+
+    @Test
+    void statsFollowCreateAndDelete() throws IOException {
+        LocalDate birthDate = LocalDate.now().minusYears(30).minusDays(10);
+        Snapshot before = snapshot("Cidade 45", 30);
+
+        long id = usuarios.create(newUsuario().withBirthDate(birthDate.toString()).withZip("45000000"));
+        Snapshot created = snapshot("Cidade 45", 30);
+        assertEquals(before.total() + 1, created.total());
+        assertEquals(before.state() + 1, created.state());
+        assertEquals(before.city() + 1, created.city());
+        assertEquals(before.ageBucket() + 1, created.ageBucket());
+
+        write(HttpMethod.DELETE, "/usuarios/" + id, null);
+        assertEquals(before, snapshot("Cidade 45", 30), "a exclusão desfaz as contagens");
+    }
+
+    @Test
+    void statsFollowAddressAndBirthDateChanges() throws IOException {
+        long id = usuarios.create(newUsuario()
+                .withBirthDate(LocalDate.now().minusYears(30).minusDays(10).toString()).withZip("46000000"));
+        Snapshot oldCity = snapshot("Cidade 46", 30);
+        Snapshot newCity = snapshot("Cidade 47", 70);
+
+        write(HttpMethod.PATCH, "/usuarios/address", """
+                {"id": %d, "zip": "47000000", "address_number": 5}""".formatted(id));
+        assertEquals(oldCity.city() - 1, snapshot("Cidade 46", 30).city());
+        assertEquals(newCity.city() + 1, snapshot("Cidade 47", 70).city());
+        assertEquals(oldCity.total(), snapshot("Cidade 46", 30).total(), "a mudança de endereço não altera o total");
+
+        write(HttpMethod.PATCH, "/usuarios/birthDate", """
+                {"id": %d, "birth_date": "%s"}""".formatted(id, LocalDate.now().minusYears(70).minusDays(10)));
+        assertEquals(oldCity.ageBucket() - 1, snapshot("Cidade 46", 30).ageBucket());
+        assertEquals(newCity.ageBucket() + 1, snapshot("Cidade 47", 70).ageBucket());
+    }
+
+    /**
+     * Contagens que o teste acompanha: total, SP, a cidade e a faixa que contém a idade
+     */
+    private Snapshot snapshot(String city, int age) throws IOException {
+        ResponseEntity<String> response = rest.getForEntity("/usuarios/stats", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), response.getBody());
+        JsonNode stats = objectMapper.readTree(response.getBody());
+
+        long stateTotal = 0;
+        long cityTotal = 0;
+        for (JsonNode state : stats.get("states")) {
+            if (!"SP".equals(state.get("state").asText())) {
+                continue;
+            }
+            stateTotal = state.get("total").asLong();
+            for (JsonNode cityStats : state.get("cities")) {
+                if (city.equals(cityStats.get("city").asText())) {
+                    cityTotal = cityStats.get("total").asLong();
+                }
+            }
+        }
+
+        long bucketTotal = 0;
+        for (JsonNode bucket : stats.get("age_buckets")) {
+            boolean aboveMin = age >= bucket.get("min_age").asInt();
+            boolean belowMax = bucket.get("max_age").isNull() || age <= bucket.get("max_age").asInt();
+            if (aboveMin && belowMax) {
+                bucketTotal = bucket.get("total").asLong();
+            }
+        }
+        return new Snapshot(stats.get("total").asLong(), stateTotal, cityTotal, bucketTotal);
+    }
+
+    private void write(HttpMethod method, String path, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), method + " " + path + ": " + response.getBody());
+    }
+
+    private record Snapshot(long total, long state, long city, long ageBucket) {
+    }
+}
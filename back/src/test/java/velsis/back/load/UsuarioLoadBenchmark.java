@@ -0,0 +1,270 @@
+package velsis.back.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import velsis.back.support.ApiTestConfiguration;
+import velsis.back.support.ViaCepStub;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de carga da API completa, sem MySQL nem ViaCEP reais: banco H2 em memória e o ViaCepStub
+ * Várias threads repetem uma mistura de chamadas parecida com o uso da tela (cadastro, listagem paginada,
+ * tela de edição, alterações e exclusão) e ao final é impressa a vazão e os percentis de latência por endpoint.
+ * O relatório também é gravado em target/load-report.csv para comparar execuções.
+ *
+ * Fora da execução padrão dos testes; executar com ./mvnw -Pbenchmark verify ou ./mvnw test -Dtest=UsuarioLoadBenchmark
+ * Parâmetros (-D): load.duration (30s), load.threads (16), load.seed (500 usuários),
+ * load.viacep-latency (50ms) e load.viacep-error-rate (0.0).
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(ApiTestConfiguration.class)
+class UsuarioLoadBenchmark {
+
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("load.duration", "30s"));
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final int SEED = Integer.getInteger("load.seed", 500);
+    private static final Duration VIACEP_LATENCY = Duration.parse("PT" + System.getProperty("load.viacep-latency", "0.05s"));
+    private static final double VIACEP_ERROR_RATE = Double.parseDouble(System.getProperty("load.viacep-error-rate", "0.0"));
+    private static final int DISTINCT_ZIPS = 5000;
+
+
+    /**
+     * Endpoint e peso na mistura de chamadas (soma 100)
+     */
+    enum Endpoint {
+        CREATE(20), LIST_PAGE(30), GET_FOR_UPDATE(25), PATCH_NAME(10), PATCH_ADDRESS(10), DELETE(5);
+
+        final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+
+        static Endpoint pick(int roll) {
+            for (Endpoint endpoint : values()) {
+                roll -= endpoint.weight;
+                if (roll < 0) {
+                    return endpoint;
+                }
+            }
+            return LIST_PAGE;
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ViaCepStub viaCep;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final AtomicLong documents = new AtomicLong(10_000_000_000L);
+    private final AtomicLong maxId = new AtomicLong();
+    private final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("viacep.max-concurrent-calls", () -> THREADS * 4);
+    }
+
+    @Test
+    void mixedLoad() throws Exception {
+        for (int i = 0; i < SEED; i++) {
+            if (send(Endpoint.CREATE) / 100 == 2) {
+                maxId.incrementAndGet();
+            }
+        }
+        viaCep.latency(VIACEP_LATENCY).errorRate(VIACEP_ERROR_RATE);
+
+        long deadline = System.nanoTime() + DURATION.toNanos();
+        List<Future<Map<Endpoint, Recorder>>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> drive(deadline)));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<Endpoint, Recorder> total = new EnumMap<>(Endpoint.class);
+        for (Future<Map<Endpoint, Recorder>> worker : workers) {
+            worker.get().forEach((endpoint, recorder) ->
+                    total.computeIfAbsent(endpoint, e -> new Recorder()).merge(recorder));
+        }
+
+        report(total, seconds);
+        assertTrue(total.values().stream().mapToInt(recorder -> recorder.size).sum() > 0);
+        if (VIACEP_ERROR_RATE == 0) {
+            assertTrue(total.values().stream().allMatch(recorder -> recorder.serverErrors == 0),
+                    "sem erros injetados no ViaCEP nenhuma chamada deve responder 5xx");
+        }
+    }
+
+    private Map<Endpoint, Recorder> drive(long deadline) throws IOException, InterruptedException {
+        Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+        while (System.nanoTime() < deadline) {
+            Endpoint endpoint = Endpoint.pick(ThreadLocalRandom.current().nextInt(100));
+            long begin = System.nanoTime();
+            int status = send(endpoint);
+            recorders.computeIfAbsent(endpoint, e -> new Recorder()).record(System.nanoTime() - begin, status);
+        }
+        return recorders;
+    }
+
+    private int send(Endpoint endpoint) throws IOException, InterruptedException {
+        HttpRequest request = switch (endpoint) {
+            case CREATE -> json("POST", "/usuarios", """
+                    {"name": "Usuário %d", "birth_date": "1990-01-01", "address_number": 10,
+                     "document": "%d", "zip": "%s"}""".formatted(documents.get(), documents.getAndIncrement(), zip()));
+            case LIST_PAGE -> get("/usuarios?limit=20&after=" + Math.max(0, randomId() - 10));
+            case GET_FOR_UPDATE -> get("/usuarios/" + randomId());
+            case PATCH_NAME -> json("PATCH", "/usuarios/name", """
+                    {"id": %d, "name": "Alterado %d"}""".formatted(randomId(), System.nanoTime()));
+            case PATCH_ADDRESS -> json("PATCH", "/usuarios/address", """
+                    {"id": %d, "zip": "%s", "address_number": 20}""".formatted(randomId(), zip()));
+            case DELETE -> {
+                long id = randomId();
+                deleted.add(id);
+                yield HttpRequest.newBuilder(uri("/usuarios/" + id)).DELETE().build();
+            }
+        };
+
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (endpoint == Endpoint.CREATE && status == 201) {
+            maxId.incrementAndGet();
+        }
+        return status;
+    }
+
+    /**
+     * Id de um usuário provavelmente existente; exclusões concorrentes ainda podem gerar 404
+     */
+    private long randomId() {
+        long max = Math.max(1, maxId.get());
+        for (int attempt = 0; attempt < 5; attempt++) {
+            long id = ThreadLocalRandom.current().nextLong(1, max + 1);
+            if (!deleted.contains(id)) {
+                return id;
+            }
+        }
+        return max;
+    }
+
+    private static String zip() {
+        return "%08d".formatted(10_000_000 + ThreadLocalRandom.current().nextInt(DISTINCT_ZIPS));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    private static void report(Map<Endpoint, Recorder> total, double seconds) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,requests,non_2xx,server_errors,throughput_rps,p50_ms,p90_ms,p99_ms,max_ms");
+        System.out.printf("%n%-15s %9s %8s %6s %10s %8s %8s %8s %8s%n",
+                "endpoint", "requests", "non-2xx", "5xx", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+
+        for (Map.Entry<Endpoint, Recorder> entry : total.entrySet()) {
+            Recorder recorder = entry.getValue();
+            recorder.sort();
+            double throughput = recorder.size / seconds;
+            System.out.printf("%-15s %9d %8d %6d %10.1f %8.2f %8.2f %8.2f %8.2f%n",
+                    entry.getKey(), recorder.size, recorder.failures, recorder.serverErrors, throughput,
+                    recorder.percentile(50), recorder.percentile(90), recorder.percentile(99), recorder.percentile(100));
+            lines.add("%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f".formatted(entry.getKey(), recorder.size,
+                    recorder.failures, recorder.serverErrors, throughput, recorder.percentile(50),
+                    recorder.percentile(90), recorder.percentile(99), recorder.percentile(100)));
+        }
+
+        Path target = Path.of("target", "load-report.csv");
+        Files.createDirectories(target.getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(target))) {
+            lines.forEach(out::println);
+        }
+    }
+
+    /**
+     * Latências de um endpoint em uma thread, em nanos; as threads são somadas no final
+     */
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int size;
+        private int failures;
+        private int serverErrors;
+
+        void record(long nanos, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            if (status / 100 != 2) {
+                failures++;
+            }
+            if (status >= 500) {
+                serverErrors++;
+            }
+        }
+
+        void merge(Recorder other) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length, size + other.size));
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            failures += other.failures;
+            serverErrors += other.serverErrors;
+        }
+
+        void sort() {
+            Arrays.sort(latencies, 0, size);
+        }
+
+        double percentile(int percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            int index = Math.min(size - 1, (int) Math.ceil(percentile / 100.0 * size) - 1);
+            return latencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package velsis.back.support;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+import velsis.back.repositories.UsuarioRepository;
+
+import java.io.IOException;
+
+/**
+ * Base dos testes que sobem a API inteira, registrada com @Import(ApiTestConfiguration.class)
+ * Sobe um ViaCepStub por contexto e aponta viacep.url para ele; o stub é fechado junto com o contexto.
+ * Os testes recebem o stub e o UsuarioFixtures por @Autowired.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class ApiTestConfiguration {
+
+    @Bean
+    ViaCepStub viaCepStub() throws IOException {
+        return new ViaCepStub();
+    }
+
+    @Bean
+    DynamicPropertyRegistrar viaCepUrl(ViaCepStub viaCepStub) {
+        return registry -> registry.add("viacep.url", viaCepStub::baseUrl);
+    }
+
+    @Bean
+    UsuarioFixtures usuarioFixtures(TestRestTemplate rest, UsuarioRepository usuarioRepository) {
+        return new UsuarioFixtures(rest, usuarioRepository);
+    }
+}
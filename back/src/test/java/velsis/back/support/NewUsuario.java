@@ -0,0 +1,44 @@
+package velsis.back.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Corpo do POST /usuarios nos testes; newUsuario() traz dados válidos com um document ainda não usado
+ */
+public record NewUsuario(String name, String birth_date, String document, String zip) {
+
+    private static final AtomicLong DOCUMENTS = new AtomicLong(80_000_000_000L);
+
+    public static NewUsuario newUsuario() {
+        return new NewUsuario("Maria Souza", "1990-05-10", nextDocument(), "01001000");
+    }
+
+    /**
+     * Document único entre todos os testes da JVM, mesmo quando compartilham o contexto (e o banco)
+     */
+    public static String nextDocument() {
+        return String.valueOf(DOCUMENTS.getAndIncrement());
+    }
+
+    public NewUsuario withName(String name) {
+        return new NewUsuario(name, birth_date, document, zip);
+    }
+
+    public NewUsuario withBirthDate(String birthDate) {
+        return new NewUsuario(name, birthDate, document, zip);
+    }
+
+    public NewUsuario withDocument(String document) {
+        return new NewUsuario(name, birth_date, document, zip);
+    }
+
+    public NewUsuario withZip(String zip) {
+        return new NewUsuario(name, birth_date, document, zip);
+    }
+
+    public String json() {
+        return """
+                {"name": "%s", "birth_date": "%s", "address_number": 10,
+                 "document": "%s", "zip": "%s"}""".formatted(name, birth_date, document, zip);
+    }
+}
@@ -0,0 +1,200 @@
+package velsis.back.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Intercepta o DataSource da aplicação e registra cada comando SQL enviado ao banco
+ * Cada execute/executeQuery/executeUpdate/executeBatch conta como uma ida ao banco, seja pelo Hibernate,
+ * pelo JdbcTemplate ou por JDBC direto. Registrado nos testes com @Import(SqlStatementCounter.class).
+ * A contagem é global: os testes devem zerá-la antes da chamada medida e não rodar chamadas em paralelo.
+ */
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    public enum Type { SELECT, INSERT, UPDATE, DELETE, OTHER }
+
+    public record Executed(Type type, String sql) {
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+
+    /**
+     * Quantidade esperada de comandos por tipo
+     */
+    public record Budget(int selects, int inserts, int updates, int deletes) {
+
+        public static Budget none() {
+            return new Budget(0, 0, 0, 0);
+        }
+
+        Map<Type, Integer> byType() {
+            Map<Type, Integer> counts = new EnumMap<>(Type.class);
+            counts.put(Type.SELECT, selects);
+            counts.put(Type.INSERT, inserts);
+            counts.put(Type.UPDATE, updates);
+            counts.put(Type.DELETE, deletes);
+            counts.put(Type.OTHER, 0);
+            return counts;
+        }
+    }
+
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final List<Executed> executed = new ArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, null);
+        }
+        return bean;
+    }
+
+    public synchronized void reset() {
+        executed.clear();
+    }
+
+    public synchronized List<Executed> executed() {
+        return List.copyOf(executed);
+    }
+
+    public synchronized Map<Type, Integer> counts() {
+        Map<Type, Integer> counts = new EnumMap<>(Type.class);
+        for (Type type : Type.values()) {
+            counts.put(type, 0);
+        }
+        for (Executed statement : executed) {
+            counts.merge(statement.type(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Compara os comandos executados desde o último reset com o orçamento
+     * A mensagem de falha mostra a diferença por tipo e a lista dos comandos, na ordem em que foram executados.
+     */
+    public void assertBudget(String call, Budget budget) {
+        Map<Type, Integer> expected = budget.byType();
+        Map<Type, Integer> actual = counts();
+        if (expected.equals(actual)) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder("Orçamento de SQL estourado em ").append(call).append('\n');
+        for (Type type : Type.values()) {
+            int difference = actual.get(type) - expected.get(type);
+            message.append("  %-6s esperado %d, executado %d%s%n".formatted(type, expected.get(type), actual.get(type),
+                    difference == 0 ? "" : " (%+d)".formatted(difference)));
+        }
+        List<Executed> statements = executed();
+        message.append("Comandos executados:\n");
+        for (int i = 0; i < statements.size(); i++) {
+            message.append("  %2d. %s%n".formatted(i + 1, statements.get(i)));
+        }
+        fail(message.toString());
+    }
+
+    private synchronized void record(String sql) {
+        executed.add(new Executed(typeOf(sql), sql == null ? "?" : sql.strip()));
+    }
+
+    private static Type typeOf(String sql) {
+        if (sql == null) {
+            return Type.OTHER;
+        }
+        String keyword = sql.stripLeading().split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        return switch (keyword) {
+            case "SELECT" -> Type.SELECT;
+            case "INSERT" -> Type.INSERT;
+            case "UPDATE" -> Type.UPDATE;
+            case "DELETE" -> Type.DELETE;
+            default -> Type.OTHER;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T target, String sql) {
+        InvocationHandler handler = new Interceptor(target, sql);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Repassa as chamadas ao objeto JDBC real, embrulhando conexões e statements criados a partir dele
+     */
+    private final class Interceptor implements InvocationHandler {
+
+        private final Object target;
+        private final String sql;
+        private final List<String> batch = new ArrayList<>();
+
+        Interceptor(Object target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (target instanceof Statement && EXECUTE_METHODS.contains(name)) {
+                recordExecution(name, args);
+            } else if (target instanceof Statement && name.equals("addBatch") && args != null && args.length == 1) {
+                batch.add((String) args[0]);
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            return switch (result) {
+                case CallableStatement statement when name.equals("prepareCall") ->
+                        proxy(CallableStatement.class, statement, (String) args[0]);
+                case PreparedStatement statement when name.equals("prepareStatement") ->
+                        proxy(PreparedStatement.class, statement, (String) args[0]);
+                case Statement statement when name.equals("createStatement") ->
+                        proxy(Statement.class, statement, null);
+                case Connection connection when name.equals("getConnection") && target instanceof DataSource ->
+                        proxy(Connection.class, connection, null);
+                case null, default -> result;
+            };
+        }
+
+        private void recordExecution(String name, Object[] args) {
+            if (args != null && args.length > 0 && args[0] instanceof String statementSql) {
+                record(statementSql);
+            } else if (name.startsWith("executeBatch") || name.startsWith("executeLargeBatch")) {
+                if (sql != null) {
+                    record(sql);
+                } else {
+                    batch.forEach(SqlStatementCounter.this::record);
+                }
+                batch.clear();
+            } else {
+                record(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package velsis.back.support;
+
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import velsis.back.entities.Usuario;
+import velsis.back.repositories.UsuarioRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cadastro de usuários pela API (alimentando índices, caches e eventos como em produção)
+ */
+public class UsuarioFixtures {
+
+    private final TestRestTemplate rest;
+    private final UsuarioRepository usuarioRepository;
+
+    public UsuarioFixtures(TestRestTemplate rest, UsuarioRepository usuarioRepository) {
+        this.rest = rest;
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    public ResponseEntity<String> post(NewUsuario usuario) {
+        return post(usuario, new HttpHeaders());
+    }
+
+    /**
+     * @param headers cabeçalhos extras, ex.: Idempotency-Key ou o cliente do read-your-writes
+     */
+    public ResponseEntity<String> post(NewUsuario usuario, HttpHeaders headers) {
+        HttpHeaders request = new HttpHeaders();
+        request.addAll(headers);
+        request.setContentType(MediaType.APPLICATION_JSON);
+        return rest.exchange("/usuarios", HttpMethod.POST, new HttpEntity<>(usuario.json(), request), String.class);
+    }
+
+    public long create() {
+        return create(NewUsuario.newUsuario());
+    }
+
+    /**
+     * Cadastra e retorna o id; falha o teste se a resposta não for 201
+     */
+    public long create(NewUsuario usuario) {
+        ResponseEntity<String> response = post(usuario);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode(), response.getBody());
+        return usuarioRepository.findAll().stream()
+                .filter(created -> usuario.document().equals(created.getDocument()))
+                .mapToLong(Usuario::getId)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,100 @@
+package velsis.back.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor HTTP local que imita o contrato /ws/{cep}/json do ViaCEP
+ * Permite configurar latência e taxa de erro para testar timeouts e circuit breaker sem rede.
+ * O CEP 00000000 responde como inexistente ({"erro": "true"}).
+ */
+public class ViaCepStub implements AutoCloseable {
+
+    public static final String UNKNOWN_CEP = "00000000";
+
+    private final HttpServer server;
+    private final AtomicLong requests = new AtomicLong();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double errorRate;
+
+    public ViaCepStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ws/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/ws/";
+    }
+
+    public ViaCepStub latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public ViaCepStub errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+
+        try (exchange) {
+            sleep(latency);
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String cep = path.length > 2 ? path[2] : "";
+
+            String body = UNKNOWN_CEP.equals(cep)
+                    ? "{\"erro\": \"true\"}"
+                    : """
+                    {"cep": "%s", "logradouro": "Rua %s", "complemento": "", "bairro": "Centro",
+                     "localidade": "Cidade %s", "uf": "SP", "ibge": "3550308"}
+                    """.formatted(cep, cep, cep.substring(0, Math.min(2, cep.length())));
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,49 +5,72 @@ import api from '../services/api'
 export const useUserStore = defineStore('users', {
     state: () => ({
         users: [],
-        loading: false
+        loading: false,
+        pageSize: 20,
+        cursors: [0],
+        nextCursor: null,
+        total: 0,
+        userETag: null
     }),
     actions: {
         async fetchUsers() {
             this.loading = true
             try {
-                const res = await api.get('/usuarios')
-                this.users = res.data
+                const after = this.cursors[this.cursors.length - 1]
+                const res = await api.get('/usuarios', {
+                    params: { after, limit: this.pageSize, total: true }
+                })
+                this.users = res.data.content
+                this.nextCursor = res.data.next_cursor
+                this.total = res.data.total
             } finally {
                 this.loading = false
             }
         },
+        async nextPage() {
+            if (this.nextCursor === null) return
+            this.cursors.push(this.nextCursor)
+            await this.fetchUsers()
+        },
+        async prevPage() {
+            if (this.cursors.length === 1) return
+            this.cursors.pop()
+            await this.fetchUsers()
+        },
         async createUser(user) {
             await api.post('/usuarios', user)
             await this.fetchUsers()
         },
         async updateUser(user) {
-            await api.put('/usuarios', user)
+            await api.put('/usuarios', user, this.ifMatch())
             await this.fetchUsers()
         },
         async updateUserName(userData) {
-            await api.patch('/usuarios/name', userData)
+            await api.patch('/usuarios/name', userData, this.ifMatch())
             await this.fetchUsers()
         },
 
         async updateUserDocument(userData) {
-            await api.patch('/usuarios/document', userData)
+            await api.patch('/usuarios/document', userData, this.ifMatch())
             await this.fetchUsers()
         },
 
         async updateUserAddress(userData) {
-            await api.patch('/usuarios/address', userData)
+            await api.patch('/usuarios/address', userData, this.ifMatch())
             await this.fetchUsers()
         },
 
         async updateUserBirthDate(userData) {
-            await api.patch('/usuarios/birthDate', userData)
+            await api.patch('/usuarios/birthDate', userData, this.ifMatch())
             await this.fetchUsers()
         },
         async deleteUser(id) {
             await api.delete(`/usuarios/${id}`)
             await this.fetchUsers()
         },
+        ifMatch() {
+            return this.userETag ? { headers: { 'If-Match': this.userETag } } : {}
+        },
         getUser(id) {
             return this.users.find(u => u.id === id)
         },
@@ -56,6 +79,7 @@ export const useUserStore = defineStore('users', {
             try {
                 const res = await api.get(`/usuarios/${id}`)
                 this.userForUpdate = res.data
+                this.userETag = res.headers.etag ?? null
                 return res.data
             } catch (error) {
                 console.error('Erro ao buscar usuários para atualização:', error)